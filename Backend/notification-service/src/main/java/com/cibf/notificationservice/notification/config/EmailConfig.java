@@ -40,11 +40,20 @@ public class EmailConfig {
     @Value("${spring.mail.properties.mail.smtp.writetimeout:5000}")
     private int writeTimeout;
 
+    @Value("${app.email.smtp.pool-size:8}")
+    private int poolSize;
+
+    @Value("${app.email.smtp.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.email.smtp.validate-after-idle-ms:5000}")
+    private long validateAfterIdleMs;
+
     @Bean
     public JavaMailSender javaMailSender() {
 
-        // Create implementation
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        // Create implementation (keeps SMTP connections open and reuses them across emails)
+        JavaMailSenderImpl mailSender = new PooledJavaMailSender(poolSize, maxMessagesPerConnection, validateAfterIdleMs);
         mailSender.setHost(mailHost);
         mailSender.setPort(mailPort);
 
@@ -72,6 +81,9 @@ public class EmailConfig {
         props.put("mail.smtp.timeout", timeout);
         props.put("mail.smtp.writetimeout", writeTimeout);
 
+        // Don't wait for the server's reply to QUIT when a pooled connection is recycled
+        props.put("mail.smtp.quitwait", false);
+
         // Debug mode (set to true to see SMTP conversation)
         props.put("mail.debug", "false");
 
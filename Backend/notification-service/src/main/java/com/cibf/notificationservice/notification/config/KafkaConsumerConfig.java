@@ -1,7 +1,8 @@
 package com.cibf.notificationservice.notification.config;
 
-import com.google.gson.Gson;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -10,7 +11,11 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -28,8 +33,14 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset}")
     private String autoOffsetReset;
 
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    public KafkaConsumerConfig(KafkaTemplate<String, byte[]> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
 
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -40,8 +51,9 @@ public class KafkaConsumerConfig {
                 StringDeserializer.class);
 
 
+        // Handlers parse the raw bytes with their ObjectReader; no intermediate String per record
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
-                StringDeserializer.class);
+                ByteArrayDeserializer.class);
 
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
 
@@ -61,28 +73,38 @@ public class KafkaConsumerConfig {
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String>
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]>
     kafkaListenerContainerFactory() {
 
-        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
 
+        // Whole poll batches go to the listener; NotificationConsumer acknowledges each batch
+        // from the email dispatcher once its emails are delivered, and the commit happens on the next poll
+        factory.setBatchListener(true);
+
         factory.getContainerProperties()
-                .setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+                .setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        // Idle events keep firing while paused; NotificationConsumer uses them to resume
+        factory.getContainerProperties().setIdleEventInterval(1000L);
 
         factory.setConcurrency(3);
 
-        factory.setCommonErrorHandler(
-                new org.springframework.kafka.listener.DefaultErrorHandler()
-        );
+        // Batches the listener throws on (e.g. the notification log cannot be written) get a few short
+        // in-place retries, then go to <topic>.DLT so they cannot block the partition. Unparseable records
+        // and failed email sends never get here: the listener dead-letters the former itself and the
+        // retry sweeper re-sends the latter from the notification log
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(3);
+        backOff.setInitialInterval(1000L);
+        backOff.setMultiplier(2.0);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new DeadLetterPublishingRecoverer(kafkaTemplate), backOff);
+        // Malformed payloads will never succeed, so skip the in-place retries for them
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class, IllegalArgumentException.class);
+        factory.setCommonErrorHandler(errorHandler);
 
         return factory;
     }
-
-    @Bean
-    public Gson gson() {
-        return new Gson();
-    }
 }
\ No newline at end of file
@@ -26,6 +26,9 @@ public class KafkaTopicConfig {
     @Value("${app.kafka.topics.cancellation:bookfair.reservation.cancelled}")
     private String cancellationTopic;
 
+    @Value("${app.kafka.topics.notification-dead-letter:bookfair.notification.dead-letter}")
+    private String notificationDeadLetterTopic;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
@@ -59,4 +62,41 @@ public class KafkaTopicConfig {
                 .replicas(1)
                 .build();
     }
+
+    // Dead-letter topics keep the source partition count; the recoverer publishes to the same partition
+    @Bean
+    public NewTopic reservationDeadLetterTopic() {
+        return TopicBuilder
+                .name(reservationTopic + ".DLT")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic registrationDeadLetterTopic() {
+        return TopicBuilder
+                .name(registrationTopic + ".DLT")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic reservationCancelledDeadLetterTopic() {
+        return TopicBuilder
+                .name(cancellationTopic + ".DLT")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic notificationDeadLetterTopic() {
+        return TopicBuilder
+                .name(notificationDeadLetterTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
 }
\ No newline at end of file
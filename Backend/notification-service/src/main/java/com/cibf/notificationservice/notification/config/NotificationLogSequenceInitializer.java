@@ -0,0 +1,41 @@
+package com.cibf.notificationservice.notification.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * notification_logs used IDENTITY ids before the pooled sequence, and ddl-auto creates the sequence table
+ * starting at 1, so it would hand out ids that already exist. Moves the sequence past the highest id
+ * (plus one allocation block) before anything inserts; it only ever moves forward, so it is safe to run
+ * on every start and from several instances.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationLogSequenceInitializer {
+
+    // allocationSize of the notification_logs_seq generator on NotificationLog
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String SEED =
+            "UPDATE notification_logs_seq SET next_val = " +
+                    "(SELECT COALESCE(MAX(id), 0) + 1 + ? FROM notification_logs) " +
+                    "WHERE next_val <= (SELECT COALESCE(MAX(id), 0) + ? FROM notification_logs)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory means the schema update has created the sequence table
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void seed() {
+        int updated = jdbcTemplate.update(SEED, ALLOCATION_SIZE, ALLOCATION_SIZE);
+        if (updated > 0) {
+            log.info(" notification_logs_seq moved past the existing notification log ids");
+        }
+    }
+}
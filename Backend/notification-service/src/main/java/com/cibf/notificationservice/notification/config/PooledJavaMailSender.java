@@ -0,0 +1,169 @@
+package com.cibf.notificationservice.notification.config;
+
+import com.sun.mail.smtp.SMTPSendFailedException;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * JavaMailSenderImpl opens (and STARTTLS-negotiates) a new SMTP connection for every send call.
+ * This keeps up to {@code poolSize} authenticated connections open and reuses them across
+ * messages. A connection idle longer than {@code validateAfterIdleMs} is checked with NOOP
+ * before reuse, broken connections are discarded and reopened, and each connection is recycled
+ * after {@code maxMessagesPerConnection} messages to stay under server-side limits.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+    private static final int SERVICE_NOT_AVAILABLE = 421;
+
+    private final int maxMessagesPerConnection;
+    private final long validateAfterIdleMs;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<>();
+
+    public PooledJavaMailSender(int poolSize, int maxMessagesPerConnection, long validateAfterIdleMs) {
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.validateAfterIdleMs = validateAfterIdleMs;
+        this.permits = new Semaphore(poolSize, true);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        PooledTransport pooled = null;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (pooled == null) {
+                        pooled = borrow();
+                    }
+                    prepare(mimeMessage);
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    pooled.transport.sendMessage(mimeMessage, (addresses != null ? addresses : new Address[0]));
+                    pooled.messagesSent++;
+                } catch (MailAuthenticationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, e);
+                    if (pooled != null && !reusableAfter(e, pooled)) {
+                        close(pooled);
+                        pooled = null;
+                    }
+                }
+            }
+        } finally {
+            if (pooled != null) {
+                release(pooled);
+            }
+            permits.release();
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    // Rejected recipients leave the connection usable; a 421 means the server is closing it, and anything
+    // else may have broken it. The NOOP behind isConnected() is only paid after a rejection
+    private static boolean reusableAfter(Exception e, PooledTransport pooled) {
+        if (!(e instanceof SendFailedException)) {
+            return false;
+        }
+        if (e instanceof SMTPSendFailedException sendFailed && sendFailed.getReturnCode() == SERVICE_NOT_AVAILABLE) {
+            return false;
+        }
+        return pooled.transport.isConnected();
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.pollFirst()) != null) {
+            boolean stale = System.currentTimeMillis() - pooled.lastUsed > validateAfterIdleMs;
+            // isConnected() issues an SMTP NOOP, so only pay for it after the connection sat idle
+            if (!stale || pooled.transport.isConnected()) {
+                return pooled;
+            }
+            log.debug(" Discarding stale SMTP connection");
+            close(pooled);
+        }
+
+        try {
+            return new PooledTransport(connectTransport());
+        } catch (jakarta.mail.AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        }
+    }
+
+    private void release(PooledTransport pooled) {
+        if (pooled.messagesSent >= maxMessagesPerConnection) {
+            close(pooled);
+            return;
+        }
+        pooled.lastUsed = System.currentTimeMillis();
+        // Most recently used first, so surplus connections go idle and age out
+        idleTransports.offerFirst(pooled);
+    }
+
+    private void prepare(MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            // Preserve explicitly specified message id...
+            mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+        }
+    }
+
+    private void close(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (Exception e) {
+            log.debug(" Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.pollFirst()) != null) {
+            close(pooled);
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
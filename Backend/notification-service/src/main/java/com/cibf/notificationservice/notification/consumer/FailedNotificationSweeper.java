@@ -0,0 +1,138 @@
+package com.cibf.notificationservice.notification.consumer;
+
+import com.cibf.notificationservice.notification.consumer.handler.CancellationEventHandler;
+import com.cibf.notificationservice.notification.consumer.handler.RegistrationEventHandler;
+import com.cibf.notificationservice.notification.consumer.handler.ReservationEventHandler;
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import com.cibf.notificationservice.notification.model.event.CancellationEvent;
+import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
+import com.cibf.notificationservice.notification.model.event.ReservationEvent;
+import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import com.cibf.notificationservice.notification.service.NotificationRetryPolicy;
+import com.cibf.notificationservice.notification.service.NotificationService;
+import com.cibf.notificationservice.notification.service.NotificationStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Re-sends FAILED notifications whose backoff has expired, and PENDING ones whose lease has expired,
+ * from the payload stored on the log.
+ * Retries run off the Kafka listener threads, so an SMTP outage never holds up a live partition.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FailedNotificationSweeper {
+
+    private final NotificationLogRepository notificationLogRepository;
+    private final NotificationService notificationService;
+    private final NotificationStats notificationStats;
+    private final NotificationRetryPolicy notificationRetryPolicy;
+    private final ReservationEventHandler reservationEventHandler;
+    private final RegistrationEventHandler registrationEventHandler;
+    private final CancellationEventHandler cancellationEventHandler;
+
+    @Value("${app.notification.retry.sweep-batch-size:100}")
+    private int sweepBatchSize;
+
+    @Scheduled(fixedDelayString = "${app.notification.retry.sweep-interval-ms:30000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationLog> due = notificationLogRepository.findDueRetries(now, PageRequest.of(0, sweepBatchSize));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<NotificationLog> reservations = new ArrayList<>();
+        List<NotificationLog> registrations = new ArrayList<>();
+        List<NotificationLog> cancellations = new ArrayList<>();
+
+        LocalDateTime leaseUntil = notificationRetryPolicy.pendingLeaseUntil(now);
+        for (NotificationLog notificationLog : due) {
+            if (notificationLogRepository.claimRetry(notificationLog.getId(), now, leaseUntil) == 0) {
+                continue;
+            }
+            if ("PENDING".equals(notificationLog.getStatus())) {
+                log.warn(" Notification {} was left PENDING past its lease, re-sending", notificationLog.getId());
+            }
+            notificationStats.recordTransition(notificationLog.getStatus(), "PENDING");
+            notificationLog.setStatus("PENDING");
+            notificationLog.setRetryCount(notificationLog.getRetryCount() + 1);
+            notificationLog.setNextRetryAt(leaseUntil);
+
+            switch (notificationLog.getNotificationType()) {
+                case RESERVATION_CONFIRMATION -> reservations.add(notificationLog);
+                case REGISTRATION_CONFIRMATION -> registrations.add(notificationLog);
+                case RESERVATION_CANCELLATION -> cancellations.add(notificationLog);
+                default -> log.warn(" No retry path for notification {} of type {}",
+                        notificationLog.getId(), notificationLog.getNotificationType());
+            }
+        }
+
+        log.info(" Retrying {} notifications", reservations.size() + registrations.size() + cancellations.size());
+
+        // Not waited on: the sends run on the dispatcher pool and the scheduler thread moves on to other jobs.
+        // Overlapping sweeps are harmless, the claimed logs carry a lease and are not due again until it runs out
+        CompletableFuture.allOf(
+                retry(reservations, payload -> reservationEventHandler.parse(payload, null),
+                        notificationService::deliverReservationConfirmations),
+                retry(registrations, registrationEventHandler::parse,
+                        notificationService::deliverRegistrationConfirmations),
+                retry(cancellations, cancellationEventHandler::parse,
+                        notificationService::deliverCancellationNotifications)
+        ).exceptionally(e -> {
+            log.error(" Retry sweep failed: {}", e.getMessage());
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<Void> retry(List<NotificationLog> notificationLogs,
+                                              Function<byte[], T> parser,
+                                              Deliverer<T> deliverer) {
+        if (notificationLogs.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<NotificationLog> retryable = new ArrayList<>(notificationLogs.size());
+        List<NotificationLog> dead = new ArrayList<>();
+        List<T> events = new ArrayList<>(notificationLogs.size());
+        for (NotificationLog notificationLog : notificationLogs) {
+            try {
+                T event = parser.apply(notificationLog.getPayload());
+                if (event == null) {
+                    throw new IllegalStateException("Stored payload has nothing to send");
+                }
+                events.add(event);
+                retryable.add(notificationLog);
+            } catch (Exception e) {
+                // The payload was accepted once, so this is not transient; retrying it would never succeed
+                log.error(" Stored payload of notification {} cannot be parsed: {}", notificationLog.getId(), e.getMessage());
+                notificationLog.setStatus("DEAD");
+                notificationLog.setErrorMessage(e.getMessage());
+                notificationLog.setNextRetryAt(null);
+                dead.add(notificationLog);
+                notificationStats.recordTransition("PENDING", "DEAD");
+            }
+        }
+        if (!dead.isEmpty()) {
+            notificationLogRepository.updateOutcomes(dead);
+            notificationRetryPolicy.publishDead(dead);
+        }
+        return deliverer.deliver(retryable, events);
+    }
+
+    @FunctionalInterface
+    private interface Deliverer<T> {
+        CompletableFuture<Void> deliver(List<NotificationLog> notificationLogs, List<T> events);
+    }
+}
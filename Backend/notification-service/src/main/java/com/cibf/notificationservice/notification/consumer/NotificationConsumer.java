@@ -3,15 +3,44 @@ package com.cibf.notificationservice.notification.consumer;
 import com.cibf.notificationservice.notification.consumer.handler.RegistrationEventHandler;
 import com.cibf.notificationservice.notification.consumer.handler.ReservationEventHandler;
 import com.cibf.notificationservice.notification.consumer.handler.CancellationEventHandler;
+import com.cibf.notificationservice.notification.service.EmailDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Batch listeners: each poll (up to max.poll.records) is handed over as one list. Records are
+ * parsed on the listener thread and the parsed batch is sent on the {@link EmailDispatcher} pool;
+ * the batch is acknowledged only once every email in it (and in earlier batches on the same
+ * listener thread) has been delivered or marked FAILED.
+ * <p>
+ * Parsing is deterministic, so a record that cannot be parsed is published to {@code <topic>.DLT}
+ * right away and the rest of the batch carries on; the publish joins the batch's acknowledgment
+ * instead of being waited for on the listener thread.
+ * <p>
+ * When the dispatcher queue passes its high watermark all listener containers are paused; they
+ * keep polling (so the group does not rebalance) and are resumed from the idle event once the
+ * queue has drained.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -20,113 +49,144 @@ public class NotificationConsumer {
     private final ReservationEventHandler reservationEventHandler;
     private final RegistrationEventHandler registrationEventHandler;
     private final CancellationEventHandler cancellationEventHandler;
+    private final EmailDispatcher emailDispatcher;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private static final String SCHEMA_VERSION_HEADER = "schema-version";
+    private static final String DEAD_LETTER_SUFFIX = ".DLT";
+
+    // Each listener thread owns its partitions, so chaining per thread keeps commits in offset order
+    private final ThreadLocal<CompletableFuture<Void>> previousBatch =
+            ThreadLocal.withInitial(() -> CompletableFuture.completedFuture(null));
 
     @KafkaListener(
             topics = "${app.kafka.topics.reservation}",
             groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeReservationEvents(
+    public void consumeReservationEvents(List<ConsumerRecord<String, byte[]>> records,
+                                         Acknowledgment acknowledgment) {
+
+        log.info(" RECEIVED {} RESERVATION EVENTS FROM KAFKA", records.size());
+
+        processBatch(records, acknowledgment,
+                record -> reservationEventHandler.parse(record.value(), parseSchemaVersion(record)),
+                reservationEventHandler::handle);
 
-            // 1. @Payload = The actual message content (JSON string)
-            @Payload String message,
+        log.info(" Reservation batch dispatched, offsets will be committed after delivery");
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.registration}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consumeRegistrationEvents(List<ConsumerRecord<String, byte[]>> records,
+                                          Acknowledgment acknowledgment) {
 
-            // 2. Topic name (for logging)
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        log.info(" RECEIVED {} REGISTRATION EVENTS", records.size());
 
-            // 3. Partition number (0, 1, or 2)
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        processBatch(records, acknowledgment,
+                record -> registrationEventHandler.parse(record.value()),
+                registrationEventHandler::handle);
 
-            // 4. Offset (message position in partition)
-            @Header(KafkaHeaders.OFFSET) long offset,
+        log.info(" Registration batch dispatched");
+    }
 
-            // 5. Timestamp (when message was created)
-            @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp,
+    @KafkaListener(
+            topics = "${app.kafka.topics.cancellation}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consumeCancellationEvents(List<ConsumerRecord<String, byte[]>> records,
+                                          Acknowledgment acknowledgment) {
 
-            // 6. Acknowledgment (to mark message as read)
-            Acknowledgment acknowledgment
-    ) {
+        log.info(" {} CANCELLATION EVENTS RECEIVED", records.size());
 
-        log.info(" RECEIVED MESSAGE FROM KAFKA");
-        log.info(" Topic:     {}", topic);
-        log.info(" Partition: {}", partition);
-        log.info(" Offset:    {}", offset);
-        log.info(" Timestamp: {}", new java.util.Date(timestamp));
-        log.info(" Message:   {}", message);
+        processBatch(records, acknowledgment,
+                record -> cancellationEventHandler.parse(record.value()),
+                cancellationEventHandler::handle);
 
-        try {
-            reservationEventHandler.handle(message);  //pass to the handler
+        log.info(" Cancellation batch dispatched");
+    }
 
-            acknowledgment.acknowledge();
+    @EventListener
+    public void onListenerIdle(ListenerContainerIdleEvent event) {
+        if (event.isPaused() && emailDispatcher.isDrained()) {
+            log.info(" Email dispatcher drained, resuming Kafka listeners");
+            listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+        }
+    }
 
-            log.info(" Message processed and acknowledged");
-            log.info("   Offset {} marked as read", offset);
+    private <T> void processBatch(List<ConsumerRecord<String, byte[]>> records,
+                                  Acknowledgment acknowledgment,
+                                  Function<ConsumerRecord<String, byte[]>, T> parser,
+                                  Function<List<T>, CompletableFuture<Void>> handler) {
+        List<T> events = new ArrayList<>(records.size());
+        List<CompletableFuture<?>> deadLetters = new ArrayList<>();
+
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                T event = parser.apply(record);
+                if (event != null) {
+                    events.add(event);
+                }
+            } catch (Exception e) {
+                log.error(" ERROR processing {}-{} at offset {}: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage());
+                deadLetters.add(publishDeadLetter(record, e));
+            }
+        }
 
-        } catch (Exception e) {
+        deadLetters.add(previousBatch.get());
+        deadLetters.add(deliver(events, handler));
+        CompletableFuture<Void> batch = CompletableFuture.allOf(deadLetters.toArray(new CompletableFuture[0]));
+        previousBatch.set(batch.thenRun(acknowledgment::acknowledge));
 
-            log.error(" ERROR processing message at offset {}", offset);
-            log.error("   Error: {}", e.getMessage(), e);
-            log.error("   Message will NOT be acknowledged");
-            log.error("   Next consumer restart will retry this message");
+        if (emailDispatcher.isBackedUp()) {
+            log.warn(" Email dispatcher backed up, pausing Kafka listeners");
+            listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+        }
+    }
 
+    // Failed deliveries are already recorded as FAILED in the notification log; they must not block the commit
+    private <T> CompletableFuture<Void> deliver(List<T> events, Function<List<T>, CompletableFuture<Void>> handler) {
+        if (events.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
         }
+        return handler.apply(events).exceptionally(e -> {
+            log.error(" Delivery failed for part of a batch of {} events: {}", events.size(), e.getMessage());
+            return null;
+        });
     }
 
-    @KafkaListener(
-            topics = "${app.kafka.topics.registration}",
-            groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "kafkaListenerContainerFactory"
-    )
-    public void consumeRegistrationEvents(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
-            Acknowledgment acknowledgment
-    ) {
-
-        log.info(" RECEIVED REGISTRATION EVENT");
-        log.info("Topic: {}, Partition: {}, Offset: {}", topic, partition, offset);
-
-        try {
-            registrationEventHandler.handle(message);
-            acknowledgment.acknowledge();
-            log.info(" Registration event processed successfully");
-
-        } catch (Exception e) {
-            log.error("Error processing registration event: {}", e.getMessage(), e);
+    // Same topic, partition and headers as the error handler's DeadLetterPublishingRecoverer uses
+    private CompletableFuture<?> publishDeadLetter(ConsumerRecord<String, byte[]> record, Exception e) {
+        ProducerRecord<String, byte[]> deadLetter = new ProducerRecord<>(record.topic() + DEAD_LETTER_SUFFIX,
+                record.partition(), record.key(), record.value(), new RecordHeaders(record.headers().toArray()));
+        deadLetter.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array())
+                .add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array())
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, e.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        if (e.getMessage() != null) {
+            deadLetter.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, e.getMessage().getBytes(StandardCharsets.UTF_8));
         }
+
+        // A failed publish must not hold back the commits of later batches; the coordinates are logged instead
+        return kafkaTemplate.send(deadLetter).exceptionally(sendFailure -> {
+            log.error(" Could not publish {}-{} at offset {} to {}: {}", record.topic(), record.partition(),
+                    record.offset(), deadLetter.topic(), sendFailure.getMessage());
+            return null;
+        });
     }
 
-    @KafkaListener(
-            topics = "${app.kafka.topics.cancellation}",
-            groupId = "${spring.kafka.consumer.group-id}"
-    )
-    public void consumeCancellationEvents(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
-            Acknowledgment acknowledgment
-    ) {
-
-        log.info(" CANCELLATION EVENT RECEIVED");
-        log.info("Topic: {}", topic);
-        log.info("Partition: {}", partition);
-        log.info("Offset: {}", offset);
-        log.info("Message: {}", message.substring(0, Math.min(100, message.length())) + "...");
-
-        try {
-            cancellationEventHandler.handle(message);
-
-            acknowledgment.acknowledge();
-
-            log.info(" Cancellation event processed and acknowledged");
-            log.info("Offset {} committed", offset);
-
-        } catch (Exception e) {
-            log.error(" Error processing cancellation event", e);
-            log.error("Failed message: {}", message);
+    private Integer parseSchemaVersion(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(SCHEMA_VERSION_HEADER);
+        if (header == null) {
+            return null;
         }
+        return Integer.valueOf(new String(header.value(), StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
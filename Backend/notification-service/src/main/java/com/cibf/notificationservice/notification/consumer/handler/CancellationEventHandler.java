@@ -1,16 +1,14 @@
 package com.cibf.notificationservice.notification.consumer.handler;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
 import com.cibf.notificationservice.notification.model.event.CancellationEvent;
 import com.cibf.notificationservice.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 @RequiredArgsConstructor
@@ -19,14 +17,8 @@ public class CancellationEventHandler {
 
     private final NotificationService notificationService;
 
-    private final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class,
-                    (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) ->
-                            LocalDateTime.parse(json.getAsString(),
-                                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")))
-            .create();
-
-    public void handle(String eventData) {
+    // Throws if the payload is malformed or fails validation
+    public CancellationEvent parse(byte[] eventData) {
 
         log.info(" Processing CANCELLATION event");
 
@@ -36,26 +28,23 @@ public class CancellationEventHandler {
             throw new IllegalArgumentException("Event data is null - no data received from Kafka");
         }
 
-        if (eventData.trim().isEmpty()) {
-            log.error(" Event data is EMPTY - received empty string from Kafka");
-            throw new IllegalArgumentException("Event data is empty - received empty string from Kafka");
+        if (eventData.length == 0) {
+            log.error(" Event data is EMPTY - received empty payload from Kafka");
+            throw new IllegalArgumentException("Event data is empty - received empty payload from Kafka");
         }
 
-        //  Log the raw incoming JSON first
-        log.info(" Raw event data received (length: {}):", eventData.length());
-        log.info("{}", eventData);
+        log.info(" Raw event data received (length: {})", eventData.length);
 
         try {
             // Parse JSON to CancellationEvent with explicit error handling
             CancellationEvent event = null;
             try {
-                event = gson.fromJson(eventData, CancellationEvent.class);
+                event = EventReaders.CANCELLATION.readValue(eventData);
             } catch (Exception parseEx) {
-                log.error(" Gson parsing exception: {}", parseEx.getMessage());
+                log.error(" JSON parsing exception: {}", parseEx.getMessage());
                 log.error("Full parse exception:", parseEx);
                 throw new IllegalArgumentException(
-                        "Failed to parse JSON with Gson: " + parseEx.getMessage() +
-                                ". JSON: " + eventData,
+                        "Failed to parse JSON: " + parseEx.getMessage(),
                         parseEx
                 );
             }
@@ -63,9 +52,8 @@ public class CancellationEventHandler {
             //  Better null check with more info
             if (event == null) {
                 throw new IllegalArgumentException(
-                        "Failed to parse cancellation event - Gson returned null. " +
-                                "This usually means the JSON is empty, invalid, or field names don't match. " +
-                                "Received JSON: " + eventData
+                        "Failed to parse cancellation event - parser returned null. " +
+                                "This usually means the JSON is empty or the literal null"
                 );
             }
 
@@ -77,24 +65,31 @@ public class CancellationEventHandler {
             // Log event details
             logEventDetails(event);
 
-            // Process cancellation notification
-            notificationService.processCancellationNotification(event);
-
-            log.info(" Cancellation event processed successfully");
+            log.info(" Cancellation event parsed successfully");
             log.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            event.setSourcePayload(eventData);
+            return event;
 
         } catch (Exception e) {
             log.error("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             log.error(" Error handling cancellation event");
             log.error("Error type: {}", e.getClass().getName());
             log.error("Error message: {}", e.getMessage());
-            log.error("Event data that failed: {}", eventData);
+            log.error("Event data that failed: {}", new String(eventData, StandardCharsets.UTF_8));
             log.error("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             log.error("Full stack trace:", e);
             throw new RuntimeException("Failed to handle cancellation event", e);
         }
     }
 
+    public CompletableFuture<Void> handle(List<CancellationEvent> events) {
+        // Process cancellation notifications
+        CompletableFuture<Void> delivery = notificationService.processCancellationNotifications(events);
+
+        log.info(" {} cancellation events handed to email dispatcher", events.size());
+        return delivery;
+    }
+
     private void validateEvent(CancellationEvent event) {
 
         log.info(" Validating cancellation event...");
@@ -0,0 +1,45 @@
+package com.cibf.notificationservice.notification.consumer.handler;
+
+import com.cibf.notificationservice.notification.model.event.CancellationEvent;
+import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
+import com.cibf.notificationservice.notification.model.event.ReservationEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// One mapper for every event type; ObjectReaders are immutable and thread-safe, so they are built once
+// and parse the Kafka record bytes directly
+final class EventReaders {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    static final ObjectReader RESERVATION = MAPPER.readerFor(ReservationEvent.class);
+    static final ObjectReader REGISTRATION = MAPPER.readerFor(RegistrationEvent.class);
+    static final ObjectReader CANCELLATION = MAPPER.readerFor(CancellationEvent.class);
+
+    static JsonNode readTree(byte[] payload) throws IOException {
+        return MAPPER.readTree(payload);
+    }
+
+    // The payload is stored on the notification log and published to the dead-letter topic, so secrets
+    // are removed from it first; returns the original bytes when there is nothing to remove
+    static byte[] withoutFields(byte[] payload, JsonNode tree, String... fields) throws IOException {
+        if (!(tree instanceof ObjectNode object) || Arrays.stream(fields).noneMatch(object::has)) {
+            return payload;
+        }
+        ObjectNode redacted = object.deepCopy();
+        redacted.remove(Arrays.asList(fields));
+        return MAPPER.writeValueAsBytes(redacted);
+    }
+
+    private EventReaders() {
+    }
+}
@@ -1,44 +1,45 @@
 package com.cibf.notificationservice.notification.consumer.handler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
 import com.cibf.notificationservice.notification.service.NotificationService;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class RegistrationEventHandler {
 
-    private final NotificationService notificationService;
+    private static final String TEMPORARY_PASSWORD = "temporary_password";
 
-    //Use ObjectMapper instead of Gson (to match @JsonProperty annotations)
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
+    private final NotificationService notificationService;
 
-    public void handle(String eventData) {
+    // Returns null for events that carry nothing to send; throws if the payload is malformed
+    public RegistrationEvent parse(byte[] eventData) {
         try {
             log.info(" Processing registration event...");
 
             // Parse JSON using Jackson (which understands @JsonProperty)
-            RegistrationEvent event = objectMapper.readValue(eventData, RegistrationEvent.class);
+            JsonNode tree = EventReaders.readTree(eventData);
+            RegistrationEvent event = EventReaders.REGISTRATION.readValue(tree);
 
             // Validate event
             if (event == null || event.getEmail() == null) {
                 log.warn("⚠ Invalid registration event received");
-                return;
+                return null;
             }
 
             log.info("Processing registration for: {} ({})",
                     event.getUserName(), event.getEmail());
 
-            // Process the notification
-            notificationService.processRegistrationConfirmation(event);
-
-            log.info(" Registration event processed successfully");
+            // A retried welcome email goes out without the temporary password rather than keeping it at rest
+            event.setSourcePayload(EventReaders.withoutFields(eventData, tree, TEMPORARY_PASSWORD));
+            return event;
 
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             log.error(" Invalid JSON format: {}", e.getMessage());
@@ -48,4 +49,12 @@ public class RegistrationEventHandler {
             throw new RuntimeException("Failed to process registration event", e);
         }
     }
-}
\ No newline at end of file
+
+    public CompletableFuture<Void> handle(List<RegistrationEvent> events) {
+        // Process the notifications
+        CompletableFuture<Void> delivery = notificationService.processRegistrationConfirmations(events);
+
+        log.info(" {} registration events handed to email dispatcher", events.size());
+        return delivery;
+    }
+}
@@ -1,13 +1,14 @@
 package com.cibf.notificationservice.notification.consumer.handler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.cibf.notificationservice.notification.model.event.ReservationEvent;
 import com.cibf.notificationservice.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -15,37 +16,38 @@ public class ReservationEventHandler {
 
     private final NotificationService notificationService;
 
-
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
-
-    public void handle(String eventData) {
+    // Returns null for events that carry nothing to send; throws if the payload is malformed
+    public ReservationEvent parse(byte[] eventData, Integer schemaVersion) {
 
         log.info(" Processing reservation event...");
 
+        // Records without the header predate versioning and are parsed as version 1
+        if (schemaVersion != null && schemaVersion != ReservationEvent.SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported reservation event schema version: " + schemaVersion);
+        }
+
         try {
-            ReservationEvent event = objectMapper.readValue(eventData, ReservationEvent.class);
+            ReservationEvent event = EventReaders.RESERVATION.readValue(eventData);
 
             if (event == null) {
                 log.warn(" Received null event");
-                return;
+                return null;
             }
 
             if (event.getUserEmail() == null || event.getUserEmail().isEmpty()) {
                 log.warn(" Event missing email address");
-                return;
+                return null;
             }
 
             log.info(" Event Details:");
             log.info("   Reservation ID: {}", event.getReservationId());
-            log.info("   User: {} ({})", event.getUserName(), event.getUserEmail());
+            log.info("   User: {} ({})", event.getRecipientName(), event.getUserEmail());
             log.info("   Business: {}", event.getBusinessName());
             log.info("   Stalls: {}", event.getStalls().size());
             log.info("   Total: Rs. {}", event.getTotalAmount());
 
-            notificationService.processReservationConfirmation(event);
-
-            log.info(" Reservation event processed successfully");
+            event.setSourcePayload(eventData);
+            return event;
 
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             log.error(" Invalid JSON format: {}", e.getMessage());
@@ -55,4 +57,11 @@ public class ReservationEventHandler {
             throw new RuntimeException("Failed to process reservation event", e);
         }
     }
-}
\ No newline at end of file
+
+    public CompletableFuture<Void> handle(List<ReservationEvent> events) {
+        CompletableFuture<Void> delivery = notificationService.processReservationConfirmations(events);
+
+        log.info(" {} reservation events handed to email dispatcher", events.size());
+        return delivery;
+    }
+}
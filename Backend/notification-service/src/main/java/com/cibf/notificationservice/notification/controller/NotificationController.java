@@ -1,14 +1,20 @@
 package com.cibf.notificationservice.notification.controller;
 
+import com.cibf.notificationservice.notification.model.dto.NotificationPage;
 import com.cibf.notificationservice.notification.model.dto.NotificationResponse;
-import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import com.cibf.notificationservice.notification.model.dto.NotificationSummary;
 import com.cibf.notificationservice.notification.model.enums.NotificationType;
 import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import com.cibf.notificationservice.notification.service.NotificationStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,62 +28,102 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class NotificationController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // First-page cursor: later than any stored row, and still within MySQL's DATETIME range
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final NotificationLogRepository repository;
+    private final NotificationStats notificationStats;
 
 
     @GetMapping
-    public ResponseEntity<List<NotificationLog>> getAllNotifications() {
-        log.info(" Getting all notifications");
-
-        List<NotificationLog> notifications = repository.findAll();
+    public ResponseEntity<NotificationPage> getAllNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        log.info(" Getting notifications page after cursor {}", cursor);
 
-        return ResponseEntity.ok(notifications);
+        return page(cursor, size, (createdAt, id, pageable) ->
+                repository.findPage(createdAt, id, pageable));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getNotificationById(@PathVariable Long id) {
+    public ResponseEntity<NotificationResponse> getNotificationById(@PathVariable Long id) {
         log.info(" Getting notification with ID: {}", id);
 
         return repository.findById(id)
+                .map(NotificationResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
 
+    // Re-queues a FAILED or DEAD notification for the retry sweeper, with a fresh retry budget
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<?> retryNotification(@PathVariable Long id) {
+        log.info(" Re-queueing notification with ID: {}", id);
+
+        return repository.findById(id)
+                .map(notificationLog -> {
+                    if (repository.requeue(id, LocalDateTime.now()) == 0) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                    }
+                    notificationStats.recordTransition(notificationLog.getStatus(), "FAILED");
+                    return ResponseEntity.accepted().build();
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+
+    // Replays everything that went to the notification dead-letter topic
+    @PostMapping("/dead/retry")
+    public ResponseEntity<Map<String, Integer>> retryDeadNotifications() {
+        int requeued = repository.requeueDead(LocalDateTime.now());
+        notificationStats.resync();
+
+        log.info(" Re-queued {} dead notifications", requeued);
+
+        return ResponseEntity.accepted().body(Map.of("requeued", requeued));
+    }
+
+
     @GetMapping("/email/{email}")
-    public ResponseEntity<List<NotificationLog>> getNotificationsByEmail(
-            @PathVariable String email
+    public ResponseEntity<NotificationPage> getNotificationsByEmail(
+            @PathVariable String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
     ) {
         log.info(" Getting notifications for email: {}", email);
 
-        List<NotificationLog> notifications =
-                repository.findByRecipientEmailOrderByCreatedAtDesc(email);
-
-        return ResponseEntity.ok(notifications);
+        return page(cursor, size, (createdAt, id, pageable) ->
+                repository.findPageByRecipientEmail(email, createdAt, id, pageable));
     }
 
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<NotificationLog>> getNotificationsByType(
-            @PathVariable NotificationType type
+    public ResponseEntity<NotificationPage> getNotificationsByType(
+            @PathVariable NotificationType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
     ) {
         log.info(" Getting notifications of type: {}", type);
 
-        List<NotificationLog> notifications = repository.findByNotificationType(type);
-
-        return ResponseEntity.ok(notifications);
+        return page(cursor, size, (createdAt, id, pageable) ->
+                repository.findPageByNotificationType(type, createdAt, id, pageable));
     }
 
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<NotificationLog>> getNotificationsByStatus(
-            @PathVariable String status
+    public ResponseEntity<NotificationPage> getNotificationsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
     ) {
         log.info(" Getting notifications with status: {}", status);
 
-        List<NotificationLog> notifications = repository.findByStatus(status);
-
-        return ResponseEntity.ok(notifications);
+        return page(cursor, size, (createdAt, id, pageable) ->
+                repository.findPageByStatus(status, createdAt, id, pageable));
     }
 
 
@@ -85,52 +131,74 @@ public class NotificationController {
     public ResponseEntity<Map<String, Long>> getNotificationStats() {
         log.info(" Getting notification statistics");
 
-        long total = repository.count();
-        long sent = repository.countByStatus("SENT");
-        long failed = repository.countByStatus("FAILED");
-        long pending = repository.countByStatus("PENDING");
-        long reservations = repository.countByNotificationType(
-                NotificationType.RESERVATION_CONFIRMATION
-        );
-        long registrations = repository.countByNotificationType(
-                NotificationType.REGISTRATION_CONFIRMATION
-        );
-
-        Map<String, Long> stats = Map.of(
-                "total", total,
-                "sent", sent,
-                "failed", failed,
-                "pending", pending,
-                "reservations", reservations,
-                "registrations", registrations
-        );
-
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(notificationStats.snapshot());
     }
 
 
     @GetMapping("/recent")
-    public ResponseEntity<List<NotificationLog>> getRecentNotifications(
+    public ResponseEntity<List<NotificationSummary>> getRecentNotifications(
             @RequestParam(defaultValue = "10") int limit
     ) {
-        log.info(" Getting {} recent notifications", limit);
+        int recentLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info(" Getting {} recent notifications", recentLimit);
 
-        List<NotificationLog> notifications = repository.findTop10ByOrderByCreatedAtDesc();
+        // First keyset page: reads the newest rows off the (created_at, id) index, no sort
+        List<NotificationSummary> notifications = repository.findPage(
+                FIRST_PAGE_CREATED_AT, Long.MAX_VALUE, PageRequest.of(0, recentLimit));
 
         return ResponseEntity.ok(notifications);
     }
 
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<NotificationLog>> getNotificationsByDateRange(
+    public ResponseEntity<NotificationPage> getNotificationsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
     ) {
         log.info(" Getting notifications between {} and {}", start, end);
 
-        List<NotificationLog> notifications =
-                repository.findByCreatedAtBetween(start, end);
+        // The end bound is the first-page cursor; the id bound keeps rows created exactly at end
+        String rangeCursor = cursor != null ? cursor : formatCursor(end, Long.MAX_VALUE);
 
-        return ResponseEntity.ok(notifications);
+        return page(rangeCursor, size, (createdAt, id, pageable) ->
+                repository.findPageCreatedSince(start, createdAt, id, pageable));
+    }
+
+
+    private ResponseEntity<NotificationPage> page(String cursor, int size, PageQuery query) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime createdAt = FIRST_PAGE_CREATED_AT;
+        long id = Long.MAX_VALUE;
+        if (cursor != null) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                createdAt = LocalDateTime.parse(cursor.substring(0, separator));
+                id = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+            }
+        }
+
+        List<NotificationSummary> items = query.find(createdAt, id, PageRequest.of(0, pageSize));
+
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            NotificationSummary last = items.get(items.size() - 1);
+            nextCursor = formatCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return ResponseEntity.ok(new NotificationPage(items, nextCursor));
+    }
+
+    private static String formatCursor(LocalDateTime createdAt, long id) {
+        return createdAt + "_" + id;
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<NotificationSummary> find(LocalDateTime createdAt, Long id, Pageable pageable);
     }
 }
\ No newline at end of file
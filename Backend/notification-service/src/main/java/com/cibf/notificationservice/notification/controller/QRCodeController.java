@@ -0,0 +1,32 @@
+package com.cibf.notificationservice.notification.controller;
+
+import com.cibf.notificationservice.notification.model.dto.QRVerificationResponse;
+import com.cibf.notificationservice.notification.service.QRPayloadSigner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/api/qrcode")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class QRCodeController {
+
+    private final QRPayloadSigner qrPayloadSigner;
+
+
+    // Checks the signature only; no database round-trip
+    @PostMapping("/verify")
+    public ResponseEntity<QRVerificationResponse> verify(@RequestBody Map<String, String> request) {
+        QRVerificationResponse result = qrPayloadSigner.verify(request.get("payload"));
+
+        log.info(" QR verification: valid={}, reservation={}", result.isValid(), result.getReservationId());
+
+        return ResponseEntity.ok(result);
+    }
+}
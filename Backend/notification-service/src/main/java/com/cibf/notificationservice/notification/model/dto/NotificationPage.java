@@ -0,0 +1,21 @@
+package com.cibf.notificationservice.notification.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPage {
+
+    @JsonProperty("items")
+    private List<NotificationSummary> items;
+
+    // Pass back as ?cursor= to get the next page; null on the last page
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
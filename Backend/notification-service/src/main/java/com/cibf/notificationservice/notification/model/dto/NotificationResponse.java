@@ -1,6 +1,7 @@
 package com.cibf.notificationservice.notification.model.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
 import com.cibf.notificationservice.notification.model.enums.NotificationType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -48,6 +49,23 @@ public class NotificationResponse {
     @JsonProperty("error_message")
     private String errorMessage;
 
+    // Detail view of a log; the stored event payload carries personal data and is never exposed
+    public static NotificationResponse from(NotificationLog notificationLog) {
+        return NotificationResponse.builder()
+                .id(notificationLog.getId())
+                .recipientEmail(notificationLog.getRecipientEmail())
+                .recipientName(notificationLog.getRecipientName())
+                .notificationType(notificationLog.getNotificationType())
+                .subject(notificationLog.getSubject())
+                .status(notificationLog.getStatus())
+                .createdAt(notificationLog.getCreatedAt())
+                .sentAt(notificationLog.getSentAt())
+                .referenceId(notificationLog.getReferenceId())
+                .message(notificationLog.getMessage())
+                .errorMessage(notificationLog.getErrorMessage())
+                .build();
+    }
+
     @JsonProperty("is_sent")
     public boolean isSent() {
         return "SENT".equals(status);
@@ -0,0 +1,43 @@
+package com.cibf.notificationservice.notification.model.dto;
+
+import com.cibf.notificationservice.notification.model.enums.NotificationType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// List view of a notification log, without the TEXT message columns
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSummary {
+
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("recipient_email")
+    private String recipientEmail;
+
+    @JsonProperty("recipient_name")
+    private String recipientName;
+
+    @JsonProperty("notification_type")
+    private NotificationType notificationType;
+
+    @JsonProperty("subject")
+    private String subject;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+
+    @JsonProperty("sent_at")
+    private LocalDateTime sentAt;
+
+    @JsonProperty("reference_id")
+    private String referenceId;
+}
@@ -0,0 +1,23 @@
+package com.cibf.notificationservice.notification.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QRVerificationResponse {
+
+    @JsonProperty("valid")
+    private boolean valid;
+
+    @JsonProperty("reservation_id")
+    private String reservationId;
+
+    @JsonProperty("user_id")
+    private String userId;
+}
@@ -1,5 +1,6 @@
 package com.cibf.notificationservice.notification.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import com.cibf.notificationservice.notification.model.enums.NotificationType;
 import lombok.AllArgsConstructor;
@@ -10,15 +11,25 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification_logs")
+@Table(name = "notification_logs", indexes = {
+        @Index(name = "idx_notification_logs_created", columnList = "created_at, id"),
+        @Index(name = "idx_notification_logs_email_created", columnList = "recipient_email, created_at, id"),
+        @Index(name = "idx_notification_logs_type_created", columnList = "notification_type, created_at, id"),
+        @Index(name = "idx_notification_logs_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_notification_logs_status_retry", columnList = "status, next_retry_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_notification_logs_reference_type", columnNames = {"reference_id", "notification_type"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class NotificationLog {
 
+    // Pooled sequence (a table on MySQL) instead of IDENTITY, so log inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_logs_seq")
+    @SequenceGenerator(name = "notification_logs_seq", sequenceName = "notification_logs_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -53,6 +64,19 @@ public class NotificationLog {
     @Column(name = "reference_id")
     private String referenceId;
 
+    // Original event with secrets removed, kept until SENT so the retry sweeper can re-send it
+    @JsonIgnore
+    @Column(name = "payload", columnDefinition = "MEDIUMBLOB")
+    private byte[] payload;
+
+    @Builder.Default
+    @Column(name = "retry_count", nullable = false)
+    private int retryCount = 0;
+
+    // When the sweeper takes the log over: the backoff of a FAILED log, the delivery lease of a PENDING one
+    @Column(name = "next_retry_at")
+    private LocalDateTime nextRetryAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
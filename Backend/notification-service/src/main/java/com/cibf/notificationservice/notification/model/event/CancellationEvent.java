@@ -1,6 +1,8 @@
 package com.cibf.notificationservice.notification.model.event;
 
-import com.google.gson.annotations.SerializedName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,54 +15,60 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class CancellationEvent {
 
-    @SerializedName("reservation_id")
+    @JsonProperty("reservation_id")
     private String reservationId;
 
-    @SerializedName("user_id")
+    @JsonProperty("user_id")
     private String userId;
 
-    @SerializedName("user_email")
+    @JsonProperty("user_email")
     private String userEmail;
 
-    @SerializedName("user_name")
+    @JsonProperty("user_name")
     private String userName;
 
-    @SerializedName("business_name")
+    @JsonProperty("business_name")
     private String businessName;
 
-    @SerializedName("stalls")
+    @JsonProperty("stalls")
     private List<Stall> stalls;
 
-    @SerializedName("original_reservation_date")
+    @JsonProperty("original_reservation_date")
     private LocalDateTime originalReservationDate;
 
-    @SerializedName("cancellation_date")
+    @JsonProperty("cancellation_date")
     private LocalDateTime cancellationDate;
 
-    @SerializedName("total_amount")
+    @JsonProperty("total_amount")
     private Double totalAmount;
 
-    @SerializedName("cancellation_reason")
+    @JsonProperty("cancellation_reason")
     private String cancellationReason;
 
+    // Raw Kafka payload, stored on the notification log so failed sends can be retried from it
+    @JsonIgnore
+    private transient byte[] sourcePayload;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     @Builder
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Stall {
 
-        @SerializedName("stall_name")
+        @JsonProperty("stall_name")
         private String stallName;
 
-        @SerializedName("stall_size")
+        @JsonProperty("stall_size")
         private String stallSize;
 
-        @SerializedName("location")
+        @JsonProperty("location")
         private String location;
 
-        @SerializedName("price")
+        @JsonProperty("price")
         private Double price;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.cibf.notificationservice.notification.model.event;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -39,4 +40,8 @@ public class RegistrationEvent {
 
     @JsonProperty("temporary_password")
     private String temporaryPassword;
-}
\ No newline at end of file
+
+    // Raw Kafka payload, stored on the notification log so failed sends can be retried from it
+    @JsonIgnore
+    private transient byte[] sourcePayload;
+}
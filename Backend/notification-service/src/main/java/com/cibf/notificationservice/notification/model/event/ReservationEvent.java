@@ -1,6 +1,8 @@
 package com.cibf.notificationservice.notification.model.event;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,8 +15,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ReservationEvent {
 
+    // Wire contract of bookfair.reservation.created, mirrored by reservation-service's Service.ReservationEvent.
+    // Producers send it as the schema-version record header.
+    public static final int SCHEMA_VERSION = 1;
+
     @JsonProperty("reservation_id")
     private String reservationId;
 
@@ -24,6 +31,7 @@ public class ReservationEvent {
     @JsonProperty("user_email")
     private String userEmail;
 
+    // Optional: reservations carry no personal name, see getRecipientName()
     @JsonProperty("user_name")
     private String userName;
 
@@ -39,10 +47,21 @@ public class ReservationEvent {
     @JsonProperty("total_amount")
     private Double totalAmount;
 
+    // Raw Kafka payload, stored on the notification log so failed sends can be retried from it
+    @JsonIgnore
+    private transient byte[] sourcePayload;
+
+    // Who the email is addressed to: the user's name when the producer sends one, otherwise the business
+    @JsonIgnore
+    public String getRecipientName() {
+        return userName != null ? userName : businessName;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     @Builder
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class StallInfo {
         @JsonProperty("stall_id")
         private String stallId;
@@ -59,4 +78,4 @@ public class ReservationEvent {
         @JsonProperty("price")
         private Double price;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.cibf.notificationservice.notification.repository;
+
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+
+import java.util.List;
+
+public interface NotificationLogOutcomeRepository {
+
+    // Writes the delivery outcome of logs that were saved earlier, without loading them again
+    void updateOutcomes(List<NotificationLog> notificationLogs);
+}
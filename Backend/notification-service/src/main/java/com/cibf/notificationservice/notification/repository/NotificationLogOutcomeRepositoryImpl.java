@@ -0,0 +1,44 @@
+package com.cibf.notificationservice.notification.repository;
+
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * The send tasks finish with detached logs; merging them through JPA would select every row again and
+ * rewrite the payload BLOB. One JDBC batch sets only the outcome columns, keyed by id, and drops the
+ * payload of SENT logs.
+ */
+@RequiredArgsConstructor
+public class NotificationLogOutcomeRepositoryImpl implements NotificationLogOutcomeRepository {
+
+    private static final String UPDATE_OUTCOME =
+            "UPDATE notification_logs SET status = ?, sent_at = ?, message = ?, error_message = ?, next_retry_at = ?, " +
+                    "payload = CASE WHEN ? THEN NULL ELSE payload END WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notification.jdbc-batch-size:50}")
+    private int jdbcBatchSize;
+
+    @Override
+    @Transactional
+    public void updateOutcomes(List<NotificationLog> notificationLogs) {
+        if (notificationLogs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_OUTCOME, notificationLogs, jdbcBatchSize, (statement, notificationLog) -> {
+            statement.setString(1, notificationLog.getStatus());
+            statement.setObject(2, notificationLog.getSentAt());
+            statement.setString(3, notificationLog.getMessage());
+            statement.setString(4, notificationLog.getErrorMessage());
+            statement.setObject(5, notificationLog.getNextRetryAt());
+            statement.setBoolean(6, notificationLog.getPayload() == null);
+            statement.setLong(7, notificationLog.getId());
+        });
+    }
+}
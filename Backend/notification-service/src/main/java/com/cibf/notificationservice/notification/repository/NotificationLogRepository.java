@@ -1,19 +1,70 @@
 package com.cibf.notificationservice.notification.repository;
 
+import com.cibf.notificationservice.notification.model.dto.NotificationSummary;
 import com.cibf.notificationservice.notification.model.entity.NotificationLog;
 import com.cibf.notificationservice.notification.model.enums.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 
 @Repository
-public interface NotificationLogRepository extends JpaRepository<NotificationLog, Long> {
+public interface NotificationLogRepository extends JpaRepository<NotificationLog, Long>, NotificationLogOutcomeRepository {
+
+    // Keyset pages, newest first: rows strictly after the (createdAt, id) cursor
+    String SUMMARY = "SELECT new com.cibf.notificationservice.notification.model.dto.NotificationSummary(" +
+            "n.id, n.recipientEmail, n.recipientName, n.notificationType, n.subject, n.status, " +
+            "n.createdAt, n.sentAt, n.referenceId) FROM NotificationLog n ";
+    String AFTER_CURSOR = "(n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC";
+
+    @Query(SUMMARY + "WHERE " + AFTER_CURSOR)
+    List<NotificationSummary> findPage(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY + "WHERE n.recipientEmail = :email AND " + AFTER_CURSOR)
+    List<NotificationSummary> findPageByRecipientEmail(
+            @Param("email") String email,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY + "WHERE n.notificationType = :type AND " + AFTER_CURSOR)
+    List<NotificationSummary> findPageByNotificationType(
+            @Param("type") NotificationType type,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY + "WHERE n.status = :status AND " + AFTER_CURSOR)
+    List<NotificationSummary> findPageByStatus(
+            @Param("status") String status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    @Query(SUMMARY + "WHERE n.createdAt >= :start AND " + AFTER_CURSOR)
+    List<NotificationSummary> findPageCreatedSince(
+            @Param("start") LocalDateTime start,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable
+    );
 
 
     List<NotificationLog> findByRecipientEmail(String email);
@@ -50,14 +101,65 @@ public interface NotificationLogRepository extends JpaRepository<NotificationLog
 
     List<NotificationLog> findByRecipientEmailOrderByCreatedAtDesc(String email);
 
-    List<NotificationLog> findTop10ByOrderByCreatedAtDesc();
-
     long countByStatus(String status);
 
     long countByNotificationType(NotificationType type);
 
     boolean existsByReferenceId(String referenceId);
 
+    @Query(
+            "SELECT n.referenceId FROM NotificationLog n " +
+                    "WHERE n.notificationType = :type AND n.referenceId IN :referenceIds"
+    )
+    List<String> findLoggedReferenceIds(
+            @Param("type") NotificationType type,
+            @Param("referenceIds") Collection<String> referenceIds
+    );
+
+    // FAILED logs whose backoff has expired, and PENDING logs whose delivery lease has expired because
+    // the instance sending them died after the Kafka offsets were committed
+    @Query(
+            "SELECT n FROM NotificationLog n " +
+                    "WHERE n.status IN ('FAILED', 'PENDING') AND n.nextRetryAt <= :now " +
+                    "ORDER BY n.nextRetryAt"
+    )
+    List<NotificationLog> findDueRetries(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Returns 1 if this instance won the log for a retry, 0 if another sweeper or a replay got it first
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE NotificationLog n SET n.status = 'PENDING', n.retryCount = n.retryCount + 1, n.nextRetryAt = :leaseUntil " +
+                    "WHERE n.id = :id AND n.status IN ('FAILED', 'PENDING') AND n.nextRetryAt <= :now"
+    )
+    int claimRetry(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Called when a send task actually starts on this log, so time spent queued does not count against the
+    // lease. Returns 0 if the sweeper took the log over meanwhile (it bumps retry_count when it claims)
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE NotificationLog n SET n.nextRetryAt = :leaseUntil " +
+                    "WHERE n.id = :id AND n.status = 'PENDING' AND n.retryCount = :retryCount"
+    )
+    int renewLease(@Param("id") Long id, @Param("retryCount") int retryCount, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE NotificationLog n SET n.status = 'FAILED', n.retryCount = 0, n.nextRetryAt = :now " +
+                    "WHERE n.id = :id AND n.status IN ('FAILED', 'DEAD') AND n.payload IS NOT NULL"
+    )
+    int requeue(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE NotificationLog n SET n.status = 'FAILED', n.retryCount = 0, n.nextRetryAt = :now " +
+                    "WHERE n.status = 'DEAD' AND n.payload IS NOT NULL"
+    )
+    int requeueDead(@Param("now") LocalDateTime now);
+
     @Query("SELECT n FROM NotificationLog n WHERE n.recipientEmail = :email AND n.status = 'SENT'")
     List<NotificationLog> findSentNotificationsByEmail(@Param("email") String email);
 
@@ -73,4 +175,10 @@ public interface NotificationLogRepository extends JpaRepository<NotificationLog
                     "GROUP BY n.notificationType"
     )
     List<Object[]> countFailedNotificationsByType();
+
+    @Query(
+            "SELECT n.status, n.notificationType, COUNT(n) FROM NotificationLog n " +
+                    "GROUP BY n.status, n.notificationType"
+    )
+    List<Object[]> countByStatusAndType();
 }
@@ -0,0 +1,96 @@
+package com.cibf.notificationservice.notification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per recipient domain, so bursts to one mail provider are paced instead of being
+ * throttled or greylisted into mass FAILED logs. Bulk senders split each domain's messages into groups
+ * of at most {@link #burst(String)} and take the tokens for a group right before sending it; callers that
+ * run out of tokens wait on the dispatcher thread; the dispatcher queue then fills up and pauses the
+ * Kafka listeners, so excess mail stays queued in Kafka rather than failing.
+ * <p>
+ * Limits are messages per second with a burst of the same size, set per domain with
+ * {@code app.email.rate-limit.per-domain={'gmail.com':20,'yahoo.com':5}}.
+ */
+@Component
+@Slf4j
+public class DomainRateLimiter {
+
+    private final double defaultPerSecond;
+    private final Map<String, Double> perDomain;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public DomainRateLimiter(
+            @Value("${app.email.rate-limit.default-per-second:10}") double defaultPerSecond,
+            @Value("#{${app.email.rate-limit.per-domain:{:}}}") Map<String, Double> perDomain
+    ) {
+        this.defaultPerSecond = defaultPerSecond;
+        this.perDomain = perDomain;
+    }
+
+    // Largest group a full bucket covers, so a bulk send of that size goes out without pacing
+    public int burst(String domain) {
+        return (int) bucket(domain).capacity;
+    }
+
+    // Blocks until the domain has a token for each of the messages
+    public void acquire(String domain, int messages) {
+        if (messages < 1) {
+            throw new IllegalArgumentException("messages must be at least 1, was " + messages);
+        }
+        String key = domain.toLowerCase(Locale.ROOT);
+        TokenBucket bucket = bucket(key);
+
+        long waitNanos = bucket.reserve(messages);
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        log.debug("Pacing {} message(s) to {} for {} ms", messages, key, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the " + key + " rate limit", e);
+        }
+    }
+
+    private TokenBucket bucket(String domain) {
+        return buckets.computeIfAbsent(domain.toLowerCase(Locale.ROOT),
+                key -> new TokenBucket(perDomain.getOrDefault(key, defaultPerSecond)));
+    }
+
+    private static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private TokenBucket(double perSecond) {
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, perSecond);
+            this.tokens = capacity;
+        }
+
+        // Takes the tokens now, going into debt if needed, and returns how long the caller must wait for them;
+        // later callers queue behind the debt, so waiting callers are served in arrival order
+        private synchronized long reserve(int count) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+
+            tokens -= count;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+    }
+}
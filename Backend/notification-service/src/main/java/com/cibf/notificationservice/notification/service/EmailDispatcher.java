@@ -0,0 +1,83 @@
+package com.cibf.notificationservice.notification.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded sender pool between NotificationService and EmailService, so slow SMTP servers
+ * do not block the Kafka listener threads. The queue depth drives listener backpressure:
+ * the consumer pauses above the high watermark and resumes below the low watermark.
+ * <p>
+ * After the pause each listener thread can still hand over the batch it already polled, so the
+ * queue capacity must leave that much room above the high watermark (listener threads times
+ * max.poll.records). If it is still full, the task is rejected rather than run on the listener
+ * thread: its log stays PENDING and the retry sweeper sends it once the lease runs out.
+ */
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private final ThreadPoolExecutor executor;
+    private final int highWatermark;
+    private final int lowWatermark;
+
+    public EmailDispatcher(
+            @Value("${app.email.dispatch.threads:8}") int threads,
+            @Value("${app.email.dispatch.queue-capacity:2000}") int queueCapacity,
+            @Value("${app.email.dispatch.high-watermark:800}") int highWatermark,
+            @Value("${app.email.dispatch.low-watermark:200}") int lowWatermark
+    ) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    public CompletableFuture<Void> dispatch(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn(" Email dispatcher queue full ({} tasks), leaving the notification for the retry sweeper",
+                    executor.getQueue().size());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public boolean isBackedUp() {
+        return executor.getQueue().size() >= highWatermark;
+    }
+
+    public boolean isDrained() {
+        return executor.getQueue().size() <= lowWatermark;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn(" Email dispatcher did not drain within 30s, {} emails left unsent", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
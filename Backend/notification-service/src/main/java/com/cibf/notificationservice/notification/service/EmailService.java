@@ -1,5 +1,9 @@
 package com.cibf.notificationservice.notification.service;
 
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import com.cibf.notificationservice.notification.model.event.ReservationEvent;
 import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
@@ -7,21 +11,32 @@ import com.cibf.notificationservice.notification.model.event.CancellationEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class EmailService {
 
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
+    private final DomainRateLimiter rateLimiter;
 
     private static final String FROM_EMAIL = "noreply@colombobookfair.lk";
+    private static final String QR_CODE_CONTENT_ID = "reservation-qr-code";
 
     @Value("${app.email.from}")
     private String fromEmail;
@@ -30,8 +45,8 @@ public class EmailService {
     private String fromName;
 
 
-      //Send reservation confirmation email with QR code
-    public void sendReservationConfirmation(ReservationEvent event, String qrCodeBase64) {
+      //Build reservation confirmation email with the QR code as an inline image, ready for sendAll
+    public MimeMessage buildReservationConfirmation(ReservationEvent event, byte[] qrCode) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -42,23 +57,77 @@ public class EmailService {
 
             // Create email context
             Context context = new Context();
-            context.setVariable("userName", event.getUserName());
+            context.setVariable("userName", event.getRecipientName());
             context.setVariable("businessName", event.getBusinessName());
             context.setVariable("reservationId", event.getReservationId());
             context.setVariable("stalls", event.getStalls());
             context.setVariable("reservationDate", event.getReservationDate());
-            context.setVariable("qrCode", "data:image/png;base64," + qrCodeBase64);
+            context.setVariable("qrCode", "cid:" + QR_CODE_CONTENT_ID);
 
-            String htmlContent = templateEngine.process("reservation-confirmation", context);
+            String htmlContent = templateRenderer.render("reservation-confirmation", context);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
-            log.info("Reservation confirmation email sent to: {}", event.getUserEmail());
+            // Attached once as a related part instead of a data URI in the HTML body
+            helper.addInline(QR_CODE_CONTENT_ID, new ByteArrayResource(qrCode), "image/png");
+
+            return message;
 
         } catch (Exception e) {
-            log.error("Failed to send reservation confirmation email: {}", e.getMessage(), e);
-            throw new RuntimeException("Email sending failed", e);
+            log.error("Failed to build reservation confirmation email: {}", e.getMessage(), e);
+            throw new RuntimeException("Email building failed", e);
+        }
+    }
+
+    /**
+     * Sends prepared messages in bulk over the pooled SMTP connections: each recipient domain's messages
+     * go out in groups of at most that domain's burst, one {@code send(MimeMessage...)} call per group,
+     * after taking the group's rate-limit tokens. A throttled domain only waits for its own tokens and
+     * never holds back tokens taken for another.
+     *
+     * @return the messages that could not be sent, mapped to their failure (empty if all were sent)
+     */
+    public Map<MimeMessage, Exception> sendAll(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> failures = new HashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        Map<String, List<MimeMessage>> messagesByDomain = new LinkedHashMap<>();
+        messages.forEach(message ->
+                messagesByDomain.computeIfAbsent(recipientDomain(message), domain -> new ArrayList<>()).add(message));
+
+        List<String> groupDomains = new ArrayList<>();
+        List<List<MimeMessage>> groups = new ArrayList<>();
+        messagesByDomain.forEach((domain, domainMessages) -> {
+            int groupSize = rateLimiter.burst(domain);
+            for (int from = 0; from < domainMessages.size(); from += groupSize) {
+                groupDomains.add(domain);
+                groups.add(domainMessages.subList(from, Math.min(from + groupSize, domainMessages.size())));
+            }
+        });
+
+        for (int i = 0; i < groups.size(); i++) {
+            List<MimeMessage> group = groups.get(i);
+            try {
+                rateLimiter.acquire(groupDomains.get(i), group.size());
+                mailSender.send(group.toArray(new MimeMessage[0]));
+            } catch (MailAuthenticationException e) {
+                // Every later group would fail the same way
+                groups.subList(i, groups.size()).forEach(failed -> failed.forEach(message -> failures.put(message, e)));
+                break;
+            } catch (MailSendException e) {
+                e.getFailedMessages().forEach((message, cause) -> failures.put((MimeMessage) message, cause));
+                if (e.getFailedMessages().isEmpty()) {
+                    group.forEach(message -> failures.put(message, e));
+                }
+            } catch (MailException e) {
+                group.forEach(message -> failures.put(message, e));
+            }
         }
+
+        log.info("Bulk send finished: {} sent, {} failed in {} group(s)",
+                messages.size() - failures.size(), failures.size(), groups.size());
+        return failures;
     }
 
     public void sendCancellationNotification(CancellationEvent event) {
@@ -85,10 +154,10 @@ public class EmailService {
             context.setVariable("cancellationDate", event.getCancellationDate());
             context.setVariable("cancellationReason", event.getCancellationReason());
 
-            String htmlContent = templateEngine.process("cancellation-notification", context);
+            String htmlContent = templateRenderer.render("cancellation-notification", context);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
+            send(message);
 
             log.info(" Cancellation notification email sent successfully");
 
@@ -115,10 +184,10 @@ public class EmailService {
             context.setVariable("temporaryPassword", event.getTemporaryPassword());
             context.setVariable("registrationDate", event.getRegistrationDate());
 
-            String htmlContent = templateEngine.process("registration-confirmation", context);
+            String htmlContent = templateRenderer.render("registration-confirmation", context);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
+            send(message);
             log.info("Registration confirmation email sent to: {}", event.getEmail());
 
         } catch (Exception e) {
@@ -154,7 +223,7 @@ public class EmailService {
                 """, userName, resetLink);
 
             helper.setText(htmlContent, true);
-            mailSender.send(message);
+            send(message);
 
             log.info("Password reset email sent to: {}", email);
 
@@ -163,4 +232,22 @@ public class EmailService {
             throw new RuntimeException("Email sending failed", e);
         }
     }
-}
\ No newline at end of file
+
+    private void send(MimeMessage message) {
+        rateLimiter.acquire(recipientDomain(message), 1);
+        mailSender.send(message);
+    }
+
+    private static String recipientDomain(MimeMessage message) {
+        try {
+            Address[] recipients = message.getRecipients(Message.RecipientType.TO);
+            if (recipients != null && recipients.length > 0 && recipients[0] instanceof InternetAddress address) {
+                String email = address.getAddress();
+                return email.substring(email.indexOf('@') + 1);
+            }
+        } catch (MessagingException e) {
+            log.warn("Could not read recipient of message: {}", e.getMessage());
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,71 @@
+package com.cibf.notificationservice.notification.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the email templates. Each template marks its dynamic part with {@code th:fragment="content"};
+ * everything around it (styles, banner, footer) is static and is rendered once per template, so only
+ * the content fragment is evaluated per email. Parsed templates are kept in the Thymeleaf template cache.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EmailTemplateRenderer {
+
+    private static final String CONTENT_FRAGMENT = "content";
+    private static final String CONTENT_SLOT_VARIABLE = "contentSlot";
+
+    private static final String CONTENT_SLOT = "__EMAIL_CONTENT_SLOT__";
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+
+    private final TemplateEngine templateEngine;
+
+    private final Map<String, Shell> shells = new ConcurrentHashMap<>();
+
+    // Rendering runs on the fixed dispatcher threads, so each thread keeps one buffer
+    private final ThreadLocal<StringWriter> buffer = ThreadLocal.withInitial(() -> new StringWriter(16 * 1024));
+
+    public String render(String template, Context context) {
+        Shell shell = shells.computeIfAbsent(template, this::renderShell);
+
+        StringWriter writer = buffer.get();
+        if (writer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+            writer = new StringWriter(16 * 1024);
+            buffer.set(writer);
+        }
+        writer.getBuffer().setLength(0);
+
+        writer.write(shell.prefix());
+        templateEngine.process(template, Set.of(CONTENT_FRAGMENT), context, writer);
+        writer.write(shell.suffix());
+
+        return writer.toString();
+    }
+
+    // The template renders a slot marker in place of its content fragment; the text around it is the shell
+    private Shell renderShell(String template) {
+        Context context = new Context();
+        context.setVariable(CONTENT_SLOT_VARIABLE, CONTENT_SLOT);
+
+        String html = templateEngine.process(template, context);
+        int slot = html.indexOf(CONTENT_SLOT);
+        if (slot < 0) {
+            throw new IllegalStateException("Template " + template + " has no content slot");
+        }
+
+        log.info("Pre-rendered static shell for template {}", template);
+        return new Shell(html.substring(0, slot), html.substring(slot + CONTENT_SLOT.length()));
+    }
+
+    private record Shell(String prefix, String suffix) {
+    }
+}
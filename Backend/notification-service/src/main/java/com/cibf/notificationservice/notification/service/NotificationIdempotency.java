@@ -0,0 +1,143 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import com.cibf.notificationservice.notification.model.enums.NotificationType;
+import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rejects notifications that were already logged for the same (referenceId, notificationType), so
+ * Kafka redeliveries and error-handler retries do not send duplicate emails. Recently seen keys are
+ * answered from an in-memory LRU, the rest by one lookup per batch, and the unique index on
+ * notification_logs settles races between consumers.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationIdempotency {
+
+    private static final String UNIQUE_KEY = "uk_notification_logs_reference_type";
+
+    private final NotificationLogRepository notificationLogRepository;
+
+    @Value("${app.notification.dedup.cache-size:10000}")
+    private int cacheSize;
+
+    private Set<String> seen;
+
+    @PostConstruct
+    void initCache() {
+        seen = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        }));
+    }
+
+    /**
+     * Saves the PENDING logs that are not duplicates and returns them, in order. Logs without a
+     * reference ID cannot be deduplicated and are always saved.
+     */
+    public List<NotificationLog> claim(NotificationType type, List<NotificationLog> notificationLogs) {
+        List<NotificationLog> candidates = new ArrayList<>(notificationLogs.size());
+        Set<String> batchReferences = new HashSet<>();
+
+        for (NotificationLog notificationLog : notificationLogs) {
+            String referenceId = notificationLog.getReferenceId();
+            if (referenceId == null) {
+                candidates.add(notificationLog);
+            } else if (seen.contains(key(type, referenceId)) || !batchReferences.add(referenceId)) {
+                log.info(" Duplicate {} for reference {} skipped", type, referenceId);
+            } else {
+                candidates.add(notificationLog);
+            }
+        }
+
+        if (!batchReferences.isEmpty()) {
+            Set<String> logged = new HashSet<>(
+                    notificationLogRepository.findLoggedReferenceIds(type, batchReferences));
+            if (!logged.isEmpty()) {
+                candidates.removeIf(notificationLog -> {
+                    String referenceId = notificationLog.getReferenceId();
+                    if (referenceId != null && logged.contains(referenceId)) {
+                        log.info(" Duplicate {} for reference {} skipped", type, referenceId);
+                        seen.add(key(type, referenceId));
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+
+        List<NotificationLog> saved = save(type, candidates);
+        saved.forEach(notificationLog -> {
+            if (notificationLog.getReferenceId() != null) {
+                seen.add(key(type, notificationLog.getReferenceId()));
+            }
+        });
+        return saved;
+    }
+
+    private List<NotificationLog> save(NotificationType type, List<NotificationLog> candidates) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        try {
+            return notificationLogRepository.saveAll(candidates);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicate(e)) {
+                throw e;
+            }
+            // Another consumer logged one of these first; the batch was rolled back, so save row by row
+            log.warn(" Concurrent duplicate in {} batch, saving individually", type);
+        }
+
+        List<NotificationLog> saved = new ArrayList<>(candidates.size());
+        for (NotificationLog notificationLog : candidates) {
+            notificationLog.setId(null);
+            try {
+                saved.add(notificationLogRepository.save(notificationLog));
+            } catch (DataIntegrityViolationException e) {
+                if (!isDuplicate(e)) {
+                    throw e;
+                }
+                log.info(" Duplicate {} for reference {} skipped", type, notificationLog.getReferenceId());
+                seen.add(key(type, notificationLog.getReferenceId()));
+            }
+        }
+        return saved;
+    }
+
+    // Only the (referenceId, notificationType) key means "already logged"; NOT NULL, length and other
+    // constraint failures are real errors and must reach the listener's error handler
+    static boolean isDuplicate(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(UNIQUE_KEY);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(UNIQUE_KEY);
+    }
+
+    private static String key(NotificationType type, String referenceId) {
+        return type.name() + ':' + referenceId;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Decides what happens to a failed send: FAILED with an exponentially growing next_retry_at, picked up
+ * by FailedNotificationSweeper, or DEAD once the attempts are exhausted. DEAD notifications are
+ * published to the notification dead-letter topic and can be re-queued through the controller.
+ * <p>
+ * PENDING logs carry a lease in next_retry_at, renewed when their send task starts: a log that is still
+ * PENDING when the lease runs out was lost with the instance sending it, and the sweeper re-sends it like
+ * a FAILED one.
+ */
+@Component
+@Slf4j
+public class NotificationRetryPolicy {
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String deadLetterTopic;
+    private final int maxRetries;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final long pendingLeaseMs;
+
+    public NotificationRetryPolicy(
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            @Value("${app.kafka.topics.notification-dead-letter:bookfair.notification.dead-letter}") String deadLetterTopic,
+            @Value("${app.notification.retry.max-retries:5}") int maxRetries,
+            @Value("${app.notification.retry.initial-delay-ms:60000}") long initialDelayMs,
+            @Value("${app.notification.retry.max-delay-ms:3600000}") long maxDelayMs,
+            @Value("${app.notification.retry.pending-lease-ms:600000}") long pendingLeaseMs
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterTopic = deadLetterTopic;
+        this.maxRetries = maxRetries;
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.pendingLeaseMs = pendingLeaseMs;
+    }
+
+    // How long a PENDING log may stay unresolved before the sweeper takes it over; counted from when the log
+    // is created and again from when its send starts, so it only has to cover one send task
+    public LocalDateTime pendingLeaseUntil(LocalDateTime now) {
+        return now.plusNanos(pendingLeaseMs * 1_000_000L);
+    }
+
+    public void markFailed(NotificationLog notificationLog, Exception e) {
+        notificationLog.setErrorMessage(e.getMessage());
+
+        int retryCount = notificationLog.getRetryCount();
+        if (notificationLog.getPayload() == null || retryCount >= maxRetries) {
+            notificationLog.setStatus("DEAD");
+            notificationLog.setNextRetryAt(null);
+            return;
+        }
+
+        long delayMs = Math.min(maxDelayMs, initialDelayMs << Math.min(retryCount, 20));
+        notificationLog.setStatus("FAILED");
+        notificationLog.setNextRetryAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000L));
+    }
+
+    // Called after the logs are saved, so the topic never holds a notification the database still retries
+    public void publishDead(List<NotificationLog> notificationLogs) {
+        for (NotificationLog notificationLog : notificationLogs) {
+            if (!"DEAD".equals(notificationLog.getStatus())) {
+                continue;
+            }
+
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                    deadLetterTopic, notificationLog.getReferenceId(), notificationLog.getPayload());
+            record.headers()
+                    .add("notification-log-id", String.valueOf(notificationLog.getId()).getBytes(StandardCharsets.UTF_8))
+                    .add("notification-type", notificationLog.getNotificationType().name().getBytes(StandardCharsets.UTF_8));
+            if (notificationLog.getErrorMessage() != null) {
+                record.headers().add("error-message", notificationLog.getErrorMessage().getBytes(StandardCharsets.UTF_8));
+            }
+
+            kafkaTemplate.send(record).whenComplete((result, e) -> {
+                if (e != null) {
+                    // The log stays DEAD in the database and can still be re-queued through the controller
+                    log.error(" Notification {} is dead but could not be published to {}: {}",
+                            notificationLog.getId(), deadLetterTopic, e.getMessage());
+                } else {
+                    log.warn(" Notification {} dead after {} retries, published to {}",
+                            notificationLog.getId(), notificationLog.getRetryCount(), deadLetterTopic);
+                }
+            });
+        }
+    }
+}
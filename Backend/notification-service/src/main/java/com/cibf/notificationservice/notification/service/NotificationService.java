@@ -6,12 +6,23 @@ import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
 import com.cibf.notificationservice.notification.model.event.ReservationEvent;
 import com.cibf.notificationservice.notification.model.event.CancellationEvent;
 import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,145 +31,265 @@ public class NotificationService {
 
     private final EmailService emailService;
     private final QRCodeService qrCodeService;
+    private final EmailDispatcher emailDispatcher;
     private final NotificationLogRepository notificationLogRepository;
+    private final NotificationStats notificationStats;
+    private final NotificationIdempotency notificationIdempotency;
+    private final NotificationRetryPolicy notificationRetryPolicy;
+
+    @Value("${app.email.bulk-size:50}")
+    private int bulkSize;
+
+    // The PENDING logs are inserted in one batch on the caller's thread; QR generation and SMTP run on
+    // the dispatcher pool, one bulk send per chunk, and the SENT/FAILED updates are written back in one
+    // batch once the whole consumer batch has been delivered
+    public CompletableFuture<Void> processReservationConfirmations(List<ReservationEvent> events) {
+
+        log.info(" Processing {} reservation notifications", events.size());
+
+        Map<NotificationLog, ReservationEvent> eventsByLog = new IdentityHashMap<>();
+        LocalDateTime leaseUntil = notificationRetryPolicy.pendingLeaseUntil(LocalDateTime.now());
+        for (ReservationEvent event : events) {
+            eventsByLog.put(NotificationLog.builder()
+                    .recipientEmail(event.getUserEmail())
+                    .recipientName(event.getRecipientName())
+                    .notificationType(NotificationType.RESERVATION_CONFIRMATION)
+                    .subject("Stall Reservation Confirmation")
+                    .referenceId(event.getReservationId())
+                    .status("PENDING")
+                    .nextRetryAt(leaseUntil)
+                    .payload(event.getSourcePayload())
+                    .build(), event);
+        }
 
+        // Redelivered events are dropped here, before any QR or SMTP work
+        List<NotificationLog> savedLogs = claim(NotificationType.RESERVATION_CONFIRMATION, eventsByLog.keySet());
 
-    @Transactional
-    public void processReservationConfirmation(ReservationEvent event) {
-
-        log.info(" Processing reservation notification for: {}", event.getReservationId());
-
-        NotificationLog notificationLog = NotificationLog.builder()
-                .recipientEmail(event.getUserEmail())
-                .recipientName(event.getUserName())
-                .notificationType(NotificationType.RESERVATION_CONFIRMATION)
-                .subject("Stall Reservation Confirmation")
-                .referenceId(event.getReservationId())
-                .status("PENDING")
-                .build();
-
-        notificationLog = notificationLogRepository.save(notificationLog); //save to MySQL
-
-        log.info(" Notification log created with ID: {}", notificationLog.getId());
-
-        try {
-
-            String qrData = qrCodeService.generateReservationQRData(
-                    event.getReservationId(),
-                    event.getUserId(),
-                    event.getUserName()
-            );
-            String qrCodeBase64 = qrCodeService.generateQRCodeBase64(qrData);
-
-            log.info(" QR code generated");
-
-            emailService.sendReservationConfirmation(event, qrCodeBase64);
-
-            log.info(" Email sent successfully");
-
-            notificationLog.setStatus("SENT");
-            notificationLog.setSentAt(LocalDateTime.now());
-            notificationLog.setMessage("Reservation confirmation sent with QR code");
+        List<ReservationEvent> claimedEvents = savedLogs.stream()
+                .map(eventsByLog::get)
+                .collect(Collectors.toList());
 
-            notificationLogRepository.save(notificationLog);
+        return deliverReservationConfirmations(savedLogs, claimedEvents);
+    }
 
-            log.info(" Notification log updated to SENT");
+    // Sends to PENDING logs that are already saved; also the re-send path of the retry sweeper
+    public CompletableFuture<Void> deliverReservationConfirmations(List<NotificationLog> savedLogs,
+                                                                   List<ReservationEvent> claimedEvents) {
+        Set<Long> takenOver = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < savedLogs.size(); from += bulkSize) {
+            int to = Math.min(from + bulkSize, savedLogs.size());
+            List<ReservationEvent> chunkEvents = claimedEvents.subList(from, to);
+            List<NotificationLog> chunkLogs = savedLogs.subList(from, to);
+            chunks.add(emailDispatcher.dispatch(() -> sendReservationConfirmations(chunkEvents, chunkLogs, takenOver)));
+        }
+        return flushWhenDone(chunks, savedLogs, takenOver);
+    }
 
-        } catch (Exception e) {
+    private void sendReservationConfirmations(List<ReservationEvent> events, List<NotificationLog> notificationLogs,
+                                              Set<Long> takenOver) {
+        List<MimeMessage> messages = new ArrayList<>(events.size());
+        Map<MimeMessage, NotificationLog> logsByMessage = new HashMap<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            ReservationEvent event = events.get(i);
+            NotificationLog notificationLog = notificationLogs.get(i);
+            try {
+                if (!startSending(notificationLog, takenOver)) {
+                    continue;
+                }
+
+                byte[] qrCode = qrCodeService.generateReservationQRCode(
+                        event.getReservationId(),
+                        event.getUserId()
+                );
+
+                MimeMessage message = emailService.buildReservationConfirmation(event, qrCode);
+                messages.add(message);
+                logsByMessage.put(message, notificationLog);
+
+            } catch (Exception e) {
+                log.error(" Failed to prepare notification {}: {}", notificationLog.getId(), e.getMessage(), e);
+                markFailed(notificationLog, e);
+            }
+        }
 
-            log.error(" Failed to process notification: {}", e.getMessage(), e);
+        Map<MimeMessage, Exception> failures = emailService.sendAll(messages);
+
+        logsByMessage.forEach((message, notificationLog) -> {
+            Exception failure = failures.get(message);
+            if (failure != null) {
+                log.error(" Failed to send notification {}: {}", notificationLog.getId(), failure.getMessage());
+                markFailed(notificationLog, failure);
+            } else {
+                markSent(notificationLog, "Reservation confirmation sent with QR code");
+            }
+        });
+    }
 
-            notificationLog.setStatus("FAILED");
-            notificationLog.setErrorMessage(e.getMessage());
+    public CompletableFuture<Void> processCancellationNotifications(List<CancellationEvent> events) {
+
+        log.info(" Processing {} cancellation notifications", events.size());
+
+        Map<NotificationLog, CancellationEvent> eventsByLog = new IdentityHashMap<>();
+        LocalDateTime leaseUntil = notificationRetryPolicy.pendingLeaseUntil(LocalDateTime.now());
+        for (CancellationEvent event : events) {
+            log.info("Reservation ID: {}", event.getReservationId());
+            log.info("User: {} ({})", event.getUserName(), event.getUserEmail());
+            log.info("Cancelled Stalls: {}", event.getStalls().size());
+
+            eventsByLog.put(NotificationLog.builder()
+                    .recipientEmail(event.getUserEmail())
+                    .recipientName(event.getUserName())
+                    .notificationType(NotificationType.RESERVATION_CANCELLATION)
+                    .subject(" Reservation Cancelled - " + event.getBusinessName())
+                    .status("PENDING")
+                    .nextRetryAt(leaseUntil)
+                    .referenceId(event.getReservationId())
+                    .payload(event.getSourcePayload())
+                    .build(), event);
+        }
 
-            notificationLogRepository.save(notificationLog);
+        List<NotificationLog> savedLogs = claim(NotificationType.RESERVATION_CANCELLATION, eventsByLog.keySet());
 
-            log.error(" Notification log updated to FAILED");
-        }
+        return deliverCancellationNotifications(savedLogs, savedLogs.stream()
+                .map(eventsByLog::get)
+                .collect(Collectors.toList()));
     }
 
-    @Transactional
-    public void processCancellationNotification(CancellationEvent event) {
-
-        log.info(" Processing cancellation notification");
-        log.info("Reservation ID: {}", event.getReservationId());
-        log.info("User: {} ({})", event.getUserName(), event.getUserEmail());
-        log.info("Cancelled Stalls: {}", event.getStalls().size());
-
-        NotificationLog notificationLog = NotificationLog.builder()
-                .recipientEmail(event.getUserEmail())
-                .recipientName(event.getUserName())
-                .notificationType(NotificationType.RESERVATION_CANCELLATION)
-                .subject(" Reservation Cancelled - " + event.getBusinessName())
-                .status("PENDING")
-                .referenceId(event.getReservationId())
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        notificationLog = notificationLogRepository.save(notificationLog);
-        log.info(" Database log created with ID: {}", notificationLog.getId());
-
-        try {
-            // Send cancellation email
-            emailService.sendCancellationNotification(event);
-            log.info(" Cancellation email sent successfully");
-
-            // Update database log
-            notificationLog.setStatus("SENT");
-            notificationLog.setSentAt(LocalDateTime.now());
-            notificationLog.setMessage(String.format(
-                    "Cancellation notification sent for %d stall(s). Refund: LKR %.2f",
-                    event.getStalls().size(),
-                    event.getTotalAmount()
-            ));
-
-            notificationLogRepository.save(notificationLog);
-            log.info(" Database log updated to SENT");
-
-        } catch (Exception e) {
-            log.error(" Error processing cancellation notification", e);
-
-            notificationLog.setStatus("FAILED");
-            notificationLog.setErrorMessage(e.getMessage());
-            notificationLogRepository.save(notificationLog);
-
-            throw new RuntimeException("Failed to process cancellation notification", e);
+    public CompletableFuture<Void> deliverCancellationNotifications(List<NotificationLog> savedLogs,
+                                                                    List<CancellationEvent> claimedEvents) {
+        Set<Long> takenOver = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(savedLogs.size());
+        for (int i = 0; i < savedLogs.size(); i++) {
+            NotificationLog savedLog = savedLogs.get(i);
+            CancellationEvent event = claimedEvents.get(i);
+            deliveries.add(emailDispatcher.dispatch(() -> {
+                try {
+                    if (!startSending(savedLog, takenOver)) {
+                        return;
+                    }
+
+                    // Send cancellation email
+                    emailService.sendCancellationNotification(event);
+                    log.info(" Cancellation email sent successfully");
+
+                    markSent(savedLog, String.format(
+                            "Cancellation notification sent for %d stall(s). Refund: LKR %.2f",
+                            event.getStalls().size(),
+                            event.getTotalAmount()
+                    ));
+
+                } catch (Exception e) {
+                    log.error(" Error processing cancellation notification", e);
+                    markFailed(savedLog, e);
+                }
+            }));
         }
+        return flushWhenDone(deliveries, savedLogs, takenOver);
     }
 
-    @Transactional
-    public void processRegistrationConfirmation(RegistrationEvent event) {
+    public CompletableFuture<Void> processRegistrationConfirmations(List<RegistrationEvent> events) {
+
+        log.info(" Processing {} registration notifications", events.size());
+
+        Map<NotificationLog, RegistrationEvent> eventsByLog = new IdentityHashMap<>();
+        LocalDateTime leaseUntil = notificationRetryPolicy.pendingLeaseUntil(LocalDateTime.now());
+        for (RegistrationEvent event : events) {
+            eventsByLog.put(NotificationLog.builder()
+                    .recipientEmail(event.getEmail())
+                    .recipientName(event.getUserName())
+                    .notificationType(NotificationType.REGISTRATION_CONFIRMATION)
+                    .subject("Welcome to Colombo Bookfair")
+                    .referenceId(event.getUserId())
+                    .status("PENDING")
+                    .nextRetryAt(leaseUntil)
+                    .payload(event.getSourcePayload())
+                    .build(), event);
+        }
 
-        log.info(" Processing registration notification for: {}", event.getEmail());
+        List<NotificationLog> savedLogs = claim(NotificationType.REGISTRATION_CONFIRMATION, eventsByLog.keySet());
 
-        NotificationLog notificationLog = NotificationLog.builder()
-                .recipientEmail(event.getEmail())
-                .recipientName(event.getUserName())
-                .notificationType(NotificationType.REGISTRATION_CONFIRMATION)
-                .subject("Welcome to Colombo Bookfair")
-                .referenceId(event.getUserId())
-                .status("PENDING")
-                .build();
+        return deliverRegistrationConfirmations(savedLogs, savedLogs.stream()
+                .map(eventsByLog::get)
+                .collect(Collectors.toList()));
+    }
 
-        notificationLog = notificationLogRepository.save(notificationLog);
+    public CompletableFuture<Void> deliverRegistrationConfirmations(List<NotificationLog> savedLogs,
+                                                                    List<RegistrationEvent> claimedEvents) {
+        Set<Long> takenOver = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(savedLogs.size());
+        for (int i = 0; i < savedLogs.size(); i++) {
+            NotificationLog savedLog = savedLogs.get(i);
+            RegistrationEvent event = claimedEvents.get(i);
+            deliveries.add(emailDispatcher.dispatch(() -> {
+                try {
+                    if (!startSending(savedLog, takenOver)) {
+                        return;
+                    }
+
+                    emailService.sendRegistrationConfirmation(event);
+                    markSent(savedLog, "Registration confirmation sent");
+
+                    log.info(" Registration notification processed successfully");
+
+                } catch (Exception e) {
+                    log.error(" Failed to process registration notification: {}", e.getMessage(), e);
+                    markFailed(savedLog, e);
+                }
+            }));
+        }
+        return flushWhenDone(deliveries, savedLogs, takenOver);
+    }
 
-        try {
-            emailService.sendRegistrationConfirmation(event);
+    private List<NotificationLog> claim(NotificationType type, Collection<NotificationLog> notificationLogs) {
+        List<NotificationLog> savedLogs = notificationIdempotency.claim(type, new ArrayList<>(notificationLogs)); //save to MySQL
+        notificationStats.recordCreated(type, savedLogs.size());
 
-            notificationLog.setStatus("SENT");
-            notificationLog.setSentAt(LocalDateTime.now());
-            notificationLog.setMessage("Registration confirmation sent");
+        log.info(" {} notification logs created", savedLogs.size());
+        return savedLogs;
+    }
 
-            notificationLogRepository.save(notificationLog);
+    // The lease stamped when the log was created also covered the time its task sat in the dispatcher queue;
+    // renewing it here gives the send itself a full lease. A log the sweeper took over in the meantime is
+    // being sent by the sweeper's task, so this one leaves it alone
+    private boolean startSending(NotificationLog notificationLog, Set<Long> takenOver) {
+        LocalDateTime leaseUntil = notificationRetryPolicy.pendingLeaseUntil(LocalDateTime.now());
+        if (notificationLogRepository.renewLease(notificationLog.getId(), notificationLog.getRetryCount(), leaseUntil) == 0) {
+            log.info(" Notification {} was taken over by the retry sweeper, not sending it again", notificationLog.getId());
+            takenOver.add(notificationLog.getId());
+            return false;
+        }
+        notificationLog.setNextRetryAt(leaseUntil);
+        return true;
+    }
 
-            log.info(" Registration notification processed successfully");
+    // Write-behind: the send tasks only update the log entities, whose outcomes are written here in one JDBC batch
+    private CompletableFuture<Void> flushWhenDone(List<CompletableFuture<Void>> deliveries, List<NotificationLog> sentLogs,
+                                                  Set<Long> takenOver) {
+        return CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).whenComplete((ignored, e) -> {
+            List<NotificationLog> notificationLogs = sentLogs.stream()
+                    .filter(notificationLog -> !takenOver.contains(notificationLog.getId()))
+                    .collect(Collectors.toList());
+            notificationLogRepository.updateOutcomes(notificationLogs);
+            notificationLogs.forEach(notificationLog ->
+                    notificationStats.recordTransition("PENDING", notificationLog.getStatus()));
+            notificationRetryPolicy.publishDead(notificationLogs);
+
+            log.info(" {} notification logs updated", notificationLogs.size());
+        });
+    }
 
-        } catch (Exception e) {
-            log.error(" Failed to process registration notification: {}", e.getMessage(), e);
+    private void markSent(NotificationLog notificationLog, String message) {
+        notificationLog.setStatus("SENT");
+        notificationLog.setSentAt(LocalDateTime.now());
+        notificationLog.setNextRetryAt(null);
+        notificationLog.setMessage(message);
+        // Only needed for re-sends; a delivered notification keeps no copy of the event
+        notificationLog.setPayload(null);
+    }
 
-            notificationLog.setStatus("FAILED");
-            notificationLog.setErrorMessage(e.getMessage());
-            notificationLogRepository.save(notificationLog);
-        }
+    private void markFailed(NotificationLog notificationLog, Exception e) {
+        notificationRetryPolicy.markFailed(notificationLog, e);
     }
-}
\ No newline at end of file
+}
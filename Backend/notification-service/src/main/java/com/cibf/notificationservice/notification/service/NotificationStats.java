@@ -0,0 +1,86 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.enums.NotificationType;
+import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory notification counters, kept up to date by NotificationService as logs are created and
+ * change status, so the stats endpoint never touches the database. A single grouped query seeds them
+ * at startup and periodically re-syncs them, which also picks up writes made by other instances.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationStats {
+
+    private final NotificationLogRepository notificationLogRepository;
+
+    private volatile Counters counters = new Counters();
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.notification.stats.resync-ms:300000}")
+    public void resync() {
+        Counters fresh = new Counters();
+        for (Object[] row : notificationLogRepository.countByStatusAndType()) {
+            fresh.add((String) row[0], (NotificationType) row[1], (Long) row[2]);
+        }
+        counters = fresh;
+
+        log.info(" Notification stats re-synced: {} logs", fresh.total.sum());
+    }
+
+    public void recordCreated(NotificationType type, int count) {
+        counters.add("PENDING", type, count);
+    }
+
+    public void recordTransition(String fromStatus, String toStatus) {
+        Counters current = counters;
+        current.byStatus.computeIfAbsent(fromStatus, status -> new LongAdder()).decrement();
+        current.byStatus.computeIfAbsent(toStatus, status -> new LongAdder()).increment();
+    }
+
+    public Map<String, Long> snapshot() {
+        Counters current = counters;
+
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("total", current.total.sum());
+        stats.put("sent", current.status("SENT"));
+        stats.put("failed", current.status("FAILED"));
+        stats.put("pending", current.status("PENDING"));
+        stats.put("reservations", current.type(NotificationType.RESERVATION_CONFIRMATION));
+        stats.put("registrations", current.type(NotificationType.REGISTRATION_CONFIRMATION));
+        stats.put("cancellations", current.type(NotificationType.RESERVATION_CANCELLATION));
+        return stats;
+    }
+
+    private static final class Counters {
+
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final Map<NotificationType, LongAdder> byType = new ConcurrentHashMap<>();
+
+        private void add(String status, NotificationType type, long count) {
+            total.add(count);
+            byStatus.computeIfAbsent(status, key -> new LongAdder()).add(count);
+            byType.computeIfAbsent(type, key -> new LongAdder()).add(count);
+        }
+
+        private long status(String status) {
+            LongAdder adder = byStatus.get(status);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        private long type(NotificationType type) {
+            LongAdder adder = byType.get(type);
+            return adder == null ? 0 : adder.sum();
+        }
+    }
+}
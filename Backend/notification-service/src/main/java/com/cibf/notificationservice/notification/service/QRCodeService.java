@@ -2,52 +2,89 @@ package com.cibf.notificationservice.notification.service;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
-import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.util.Base64;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class QRCodeService {
 
+    private static final Map<EncodeHintType, Object> HINTS = Collections.unmodifiableMap(new EnumMap<>(Map.of(
+            EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H,
+            EncodeHintType.CHARACTER_SET, "UTF-8",
+            EncodeHintType.MARGIN, 1
+    )));
+
+    // Stateless, so one instance is shared by all dispatcher threads
+    private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+
+    private final QRPayloadSigner qrPayloadSigner;
+
     @Value("${app.qrcode.width:300}")
     private int qrCodeWidth;
 
     @Value("${app.qrcode.height:300}")
     private int qrCodeHeight;
 
-    public String generateQRCodeBase64(String data) {
-        try {
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.MARGIN, 1);
+    @Value("${app.qrcode.cache-size:1000}")
+    private int cacheSize;
+
+    // LRU of encoded QR codes by reservation ID; the payload never changes, so entries never go stale
+    private Map<String, byte[]> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
 
-            BitMatrix bitMatrix = new MultiFormatWriter().encode(
+    public byte[] generateReservationQRCode(String reservationId, String userId) {
+        byte[] cached = cache.get(reservationId);
+        if (cached != null) {
+            log.debug("QR Code cache hit for reservation {}", reservationId);
+            return cached;
+        }
+
+        byte[] qrCode = generateQRCode(generateReservationQRData(reservationId, userId));
+        cache.put(reservationId, qrCode);
+        log.info("QR Code generated successfully for reservation {}", reservationId);
+        return qrCode;
+    }
+
+    // Raw PNG bytes; the mail part Base64-encodes them as it streams them to the SMTP server
+    public byte[] generateQRCode(String data) {
+        try {
+            BitMatrix bitMatrix = qrCodeWriter.encode(
                     data,
                     BarcodeFormat.QR_CODE,
                     qrCodeWidth,
                     qrCodeHeight,
-                    hints
+                    HINTS
             );
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
             MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
 
-            byte[] qrCodeBytes = outputStream.toByteArray();
-            String base64QRCode = Base64.getEncoder().encodeToString(qrCodeBytes);
-
-            log.info("QR Code generated successfully for data: {}", data);
-            return base64QRCode;
+            // The data is a signed payload that opens the gate; it is never logged
+            return outputStream.toByteArray();
 
         } catch (Exception e) {
             log.error("Error generating QR code: {}", e.getMessage(), e);
@@ -55,13 +92,8 @@ public class QRCodeService {
         }
     }
 
-    public String generateReservationQRData(String reservationId, String userId, String userName) {
-        return String.format(
-                "BOOKFAIR_RESERVATION|ID:%s|USER:%s|NAME:%s|DATE:%s",
-                reservationId,
-                userId,
-                userName,
-                java.time.LocalDateTime.now().toString()
-        );
+    // Signed and deterministic, so the same reservation always yields the same QR code
+    public String generateReservationQRData(String reservationId, String userId) {
+        return qrPayloadSigner.sign(reservationId, userId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.dto.QRVerificationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Signs and verifies reservation QR payloads of the form {@code BF1|<reservationId>|<userId>|<signature>},
+ * where the signature is a truncated HMAC-SHA256 over the fields before it. The payload depends only on
+ * the reservation, so a QR code never changes, and gates can verify it without a database lookup.
+ */
+@Component
+@Slf4j
+public class QRPayloadSigner {
+
+    private static final String VERSION = "BF1";
+    private static final char SEPARATOR = '|';
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    public QRPayloadSigner(@Value("${app.qrcode.secret:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.qrcode.secret is not set; set it (e.g. through the APP_QRCODE_SECRET "
+                    + "environment variable) to the HMAC key shared with the gate scanners");
+        }
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            log.warn("app.qrcode.secret is shorter than {} bytes; QR signatures are only as strong as this key", MIN_SECRET_BYTES);
+        }
+        this.key = new SecretKeySpec(secretBytes, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(this::newMac);
+        newMac(); // fail at startup rather than on the first QR code
+    }
+
+    public String sign(String reservationId, String userId) {
+        if (reservationId == null || userId == null
+                || reservationId.indexOf(SEPARATOR) >= 0 || userId.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Invalid reservation QR fields: " + reservationId + ", " + userId);
+        }
+
+        String content = VERSION + SEPARATOR + reservationId + SEPARATOR + userId;
+        return content + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(signature(content));
+    }
+
+    public QRVerificationResponse verify(String payload) {
+        QRVerificationResponse invalid = QRVerificationResponse.builder().valid(false).build();
+        if (payload == null) {
+            return invalid;
+        }
+
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            return invalid;
+        }
+
+        byte[] provided;
+        try {
+            provided = Base64.getUrlDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return invalid;
+        }
+
+        String content = payload.substring(0, payload.lastIndexOf(SEPARATOR));
+        if (!MessageDigest.isEqual(signature(content), provided)) {
+            log.warn("QR payload with invalid signature for reservation {}", parts[1]);
+            return invalid;
+        }
+
+        return QRVerificationResponse.builder()
+                .valid(true)
+                .reservationId(parts[1])
+                .userId(parts[2])
+                .build();
+    }
+
+    private byte[] signature(String content) {
+        byte[] hmac = mac.get().doFinal(content.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(hmac, SIGNATURE_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance("HmacSHA256");
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
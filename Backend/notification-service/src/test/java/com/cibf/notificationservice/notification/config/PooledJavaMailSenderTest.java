@@ -0,0 +1,112 @@
+package com.cibf.notificationservice.notification.config;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PooledJavaMailSenderTest {
+
+    private final Session session = Session.getInstance(new Properties());
+
+    @Test
+    void connectionIsDiscardedWhenTheServerClosesItWith421() throws Exception {
+        Transport closing = transport(true);
+        Transport fresh = transport(true);
+        MimeMessage first = message("a@example.com");
+        MimeMessage second = message("b@example.com");
+        doThrow(new SMTPSendFailedException("DATA", 421, "421 closing connection", null, null, null, null))
+                .when(closing).sendMessage(eq(first), any(Address[].class));
+
+        TestSender sender = new TestSender(closing, fresh);
+        assertThatThrownBy(() -> sender.send(first, second)).isInstanceOf(MailSendException.class);
+
+        verify(closing).close();
+        verify(fresh).sendMessage(eq(second), any(Address[].class));
+        assertThat(sender.connects).isEqualTo(2);
+    }
+
+    @Test
+    void connectionIsKeptAfterARejectedRecipient() throws Exception {
+        Transport transport = transport(true);
+        MimeMessage rejected = message("nobody@example.com");
+        MimeMessage accepted = message("b@example.com");
+        doThrow(new SMTPAddressFailedException(new InternetAddress("nobody@example.com"), "RCPT TO", 550, "550 no such user"))
+                .when(transport).sendMessage(eq(rejected), any(Address[].class));
+
+        TestSender sender = new TestSender(transport);
+        assertThatThrownBy(() -> sender.send(rejected, accepted)).isInstanceOf(MailSendException.class);
+
+        verify(transport, never()).close();
+        verify(transport).sendMessage(eq(accepted), any(Address[].class));
+        assertThat(sender.connects).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedRecipientOnADroppedConnectionDiscardsIt() throws Exception {
+        Transport dropped = transport(false);
+        Transport fresh = transport(true);
+        MimeMessage rejected = message("nobody@example.com");
+        MimeMessage accepted = message("b@example.com");
+        doThrow(new SMTPAddressFailedException(new InternetAddress("nobody@example.com"), "RCPT TO", 550, "550 no such user"))
+                .when(dropped).sendMessage(eq(rejected), any(Address[].class));
+
+        TestSender sender = new TestSender(dropped, fresh);
+        assertThatThrownBy(() -> sender.send(rejected, accepted)).isInstanceOf(MailSendException.class);
+
+        verify(dropped).close();
+        verify(fresh).sendMessage(eq(accepted), any(Address[].class));
+    }
+
+    private static Transport transport(boolean connected) {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(connected);
+        return transport;
+    }
+
+    private MimeMessage message(String recipient) throws Exception {
+        MimeMessage message = new MimeMessage(session);
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+        message.setText("Hello");
+        return message;
+    }
+
+    // Hands out the given transports in order instead of connecting to a server
+    private static final class TestSender extends PooledJavaMailSender {
+
+        private final Deque<Transport> transports;
+        private int connects;
+
+        private TestSender(Transport... transports) {
+            super(1, 100, 30_000);
+            this.transports = new ArrayDeque<>(List.of(transports));
+        }
+
+        @Override
+        protected Transport connectTransport() {
+            connects++;
+            return transports.removeFirst();
+        }
+    }
+}
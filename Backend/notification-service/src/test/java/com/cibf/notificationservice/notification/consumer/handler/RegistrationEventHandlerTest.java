@@ -0,0 +1,39 @@
+package com.cibf.notificationservice.notification.consumer.handler;
+
+import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
+import com.cibf.notificationservice.notification.service.NotificationService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RegistrationEventHandlerTest {
+
+    private final RegistrationEventHandler handler = new RegistrationEventHandler(mock(NotificationService.class));
+
+    @Test
+    void storedPayloadDoesNotKeepTheTemporaryPassword() throws Exception {
+        RegistrationEvent event = handler.parse(bytes(
+                "{\"user_id\":\"u1\",\"email\":\"vendor@example.com\",\"name\":\"Vendor\",\"temporary_password\":\"s3cret\"}"));
+
+        assertThat(event.getTemporaryPassword()).isEqualTo("s3cret");
+        assertThat(new String(event.getSourcePayload(), StandardCharsets.UTF_8)).doesNotContain("s3cret");
+
+        RegistrationEvent retried = EventReaders.REGISTRATION.readValue(event.getSourcePayload());
+        assertThat(retried.getEmail()).isEqualTo("vendor@example.com");
+        assertThat(retried.getTemporaryPassword()).isNull();
+    }
+
+    @Test
+    void payloadWithoutSecretsIsStoredAsReceived() {
+        byte[] payload = bytes("{\"user_id\":\"u1\",\"email\":\"vendor@example.com\",\"name\":\"Vendor\"}");
+
+        assertThat(handler.parse(payload).getSourcePayload()).isSameAs(payload);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
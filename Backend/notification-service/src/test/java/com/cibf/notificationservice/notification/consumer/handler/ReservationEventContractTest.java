@@ -0,0 +1,48 @@
+package com.cibf.notificationservice.notification.consumer.handler;
+
+import com.cibf.notificationservice.notification.model.event.ReservationEvent;
+import com.cibf.notificationservice.notification.service.NotificationService;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReservationEventContractTest {
+
+    // Copy of the sample reservation-service's ReservationEventProducerTest checks the real producer against;
+    // a new schema version gets a new file in both modules
+    private static final String SAMPLE = "/contracts/reservation-created-v1.json";
+
+    private final ReservationEventHandler handler = new ReservationEventHandler(mock(NotificationService.class));
+
+    @Test
+    void producerSampleParsesIntoEverythingTheEmailUses() throws Exception {
+        byte[] sample;
+        try (InputStream in = getClass().getResourceAsStream(SAMPLE)) {
+            sample = in.readAllBytes();
+        }
+        ReservationEvent event = handler.parse(sample, ReservationEvent.SCHEMA_VERSION);
+
+        assertThat(event.getReservationId()).isEqualTo("7d9f3c1e-2b4a-4c8e-9f1a-3e5b7c9d1f2a");
+        assertThat(event.getUserId()).isEqualTo("1a2b3c4d-5e6f-4a8b-9c0d-1e2f3a4b5c6d");
+        assertThat(event.getUserEmail()).isEqualTo("orders@sarasavi.lk");
+        assertThat(event.getBusinessName()).isEqualTo("Sarasavi Bookshop");
+        assertThat(event.getReservationDate()).isEqualTo(LocalDateTime.of(2026, 9, 1, 10, 30));
+        assertThat(event.getTotalAmount()).isEqualTo(25000.0);
+
+        // No personal name on reservations: the business is addressed
+        assertThat(event.getUserName()).isNull();
+        assertThat(event.getRecipientName()).isEqualTo("Sarasavi Bookshop");
+
+        assertThat(event.getStalls()).hasSize(1);
+        ReservationEvent.StallInfo stall = event.getStalls().get(0);
+        assertThat(stall.getStallId()).isEqualTo("9e8d7c6b-5a4f-4e3d-8c2b-1a0f9e8d7c6b");
+        assertThat(stall.getStallName()).isEqualTo("A1");
+        assertThat(stall.getStallSize()).isEqualTo("MEDIUM");
+        assertThat(stall.getLocation()).isEqualTo("Hall A");
+        assertThat(stall.getPrice()).isEqualTo(25000.0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.cibf.notificationservice.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainRateLimiterTest {
+
+    private final DomainRateLimiter rateLimiter = new DomainRateLimiter(10, Map.of("slow.example", 2.0));
+
+    @Test
+    void burstUpToTheRateIsNotPaced() {
+        long elapsed = timed(() -> rateLimiter.acquire("fast.example", 10));
+
+        assertThat(elapsed).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void messagesBeyondTheBurstWaitForTokens() {
+        rateLimiter.acquire("slow.example", 2);
+
+        long elapsed = timed(() -> rateLimiter.acquire("slow.example", 1));
+
+        // 2 per second: the next token arrives after 500 ms
+        assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    void domainsHaveSeparateBucketsRegardlessOfCase() {
+        rateLimiter.acquire("SLOW.example", 2);
+
+        assertThat(timed(() -> rateLimiter.acquire("fast.example", 1)))
+                .isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(timed(() -> rateLimiter.acquire("slow.example", 1)))
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    void burstIsTheDomainRate() {
+        assertThat(rateLimiter.burst("slow.example")).isEqualTo(2);
+        assertThat(rateLimiter.burst("fast.example")).isEqualTo(10);
+    }
+
+    @Test
+    void groupBeyondTheBurstWaitsForTheMissingTokens() {
+        // 3 messages on a bucket of 2 per second: the third token arrives after 500 ms
+        assertThat(timed(() -> rateLimiter.acquire("slow.example", 3)))
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    private static long timed(Runnable runnable) {
+        long start = System.nanoTime();
+        runnable.run();
+        return System.nanoTime() - start;
+    }
+}
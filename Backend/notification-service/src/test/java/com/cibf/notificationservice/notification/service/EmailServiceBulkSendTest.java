@@ -0,0 +1,110 @@
+package com.cibf.notificationservice.notification.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailServiceBulkSendTest {
+
+    private final Session session = Session.getInstance(new Properties());
+
+    private JavaMailSender mailSender;
+    private DomainRateLimiter rateLimiter;
+    private EmailService emailService;
+
+    private final List<MimeMessage[]> sentGroups = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        rateLimiter = mock(DomainRateLimiter.class);
+        when(rateLimiter.burst("slow.example")).thenReturn(2);
+        when(rateLimiter.burst("fast.example")).thenReturn(10);
+        emailService = new EmailService(mailSender, mock(EmailTemplateRenderer.class), rateLimiter);
+    }
+
+    @Test
+    void eachDomainIsSentInBulkGroupsNoLargerThanItsBurst() throws Exception {
+        recordSends();
+        MimeMessage slow1 = message("a@slow.example");
+        MimeMessage fast1 = message("a@fast.example");
+        MimeMessage slow2 = message("b@slow.example");
+        MimeMessage slow3 = message("c@slow.example");
+        MimeMessage fast2 = message("b@fast.example");
+
+        Map<MimeMessage, Exception> failures = emailService.sendAll(List.of(slow1, fast1, slow2, slow3, fast2));
+
+        assertThat(failures).isEmpty();
+        assertThat(sentGroups).hasSize(3);
+        assertThat(List.of(sentGroups.get(0))).containsExactly(slow1, slow2);
+        assertThat(List.of(sentGroups.get(1))).containsExactly(slow3);
+        assertThat(List.of(sentGroups.get(2))).containsExactly(fast1, fast2);
+        verify(rateLimiter).acquire("slow.example", 2);
+        verify(rateLimiter).acquire("slow.example", 1);
+        verify(rateLimiter).acquire("fast.example", 2);
+    }
+
+    @Test
+    void onlyTheRejectedMessagesOfAGroupFail() throws Exception {
+        MimeMessage accepted = message("a@fast.example");
+        MimeMessage rejected = message("b@fast.example");
+        SendFailedException rejection = new SendFailedException("550 mailbox unavailable");
+        doAnswer(invocation -> {
+            throw new MailSendException(Map.of(rejected, rejection));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        Map<MimeMessage, Exception> failures = emailService.sendAll(List.of(accepted, rejected));
+
+        assertThat(failures).containsOnlyKeys(rejected);
+        assertThat(failures).containsEntry(rejected, rejection);
+    }
+
+    @Test
+    void authenticationFailureFailsEveryGroupLeft() throws Exception {
+        MailAuthenticationException authFailure = new MailAuthenticationException("535 authentication failed");
+        doAnswer(invocation -> {
+            sentGroups.add((MimeMessage[]) invocation.getRawArguments()[0]);
+            throw authFailure;
+        }).when(mailSender).send(any(MimeMessage[].class));
+        MimeMessage slow = message("a@slow.example");
+        MimeMessage fast = message("a@fast.example");
+
+        Map<MimeMessage, Exception> failures = emailService.sendAll(List.of(slow, fast));
+
+        assertThat(sentGroups).hasSize(1);
+        assertThat(failures).containsEntry(slow, authFailure);
+        assertThat(failures).containsEntry(fast, authFailure);
+    }
+
+    private void recordSends() {
+        doAnswer(invocation -> {
+            sentGroups.add((MimeMessage[]) invocation.getRawArguments()[0]);
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+    }
+
+    private MimeMessage message(String recipient) throws Exception {
+        MimeMessage message = new MimeMessage(session);
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+        return message;
+    }
+}
@@ -0,0 +1,107 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import com.cibf.notificationservice.notification.model.enums.NotificationType;
+import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationIdempotencyTest {
+
+    private static final NotificationType TYPE = NotificationType.RESERVATION_CONFIRMATION;
+
+    private NotificationLogRepository repository;
+    private NotificationIdempotency idempotency;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationLogRepository.class);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.save(any(NotificationLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        idempotency = new NotificationIdempotency(repository);
+        ReflectionTestUtils.setField(idempotency, "cacheSize", 100);
+        idempotency.initCache();
+    }
+
+    @Test
+    void redeliveredBatchIsSkippedFromTheCache() {
+        assertThat(idempotency.claim(TYPE, List.of(log("r1"), log("r2")))).hasSize(2);
+
+        List<NotificationLog> redelivered = idempotency.claim(TYPE, List.of(log("r1"), log("r2")));
+
+        assertThat(redelivered).isEmpty();
+        verify(repository).findLoggedReferenceIds(eq(TYPE), anyCollection());
+    }
+
+    @Test
+    void referencesAlreadyLoggedByAnotherInstanceAreSkipped() {
+        when(repository.findLoggedReferenceIds(eq(TYPE), anyCollection())).thenReturn(List.of("r1"));
+
+        List<NotificationLog> claimed = idempotency.claim(TYPE, List.of(log("r1"), log("r2")));
+
+        assertThat(claimed).extracting(NotificationLog::getReferenceId).containsExactly("r2");
+    }
+
+    @Test
+    void duplicatesWithinOneBatchAreClaimedOnce() {
+        List<NotificationLog> claimed = idempotency.claim(TYPE, List.of(log("r1"), log("r1"), log(null)));
+
+        assertThat(claimed).extracting(NotificationLog::getReferenceId).containsExactly("r1", null);
+    }
+
+    @Test
+    void concurrentInsertOfTheSameKeyFallsBackToRowByRow() {
+        when(repository.saveAll(anyList())).thenThrow(violation("uk_notification_logs_reference_type"));
+        NotificationLog raced = log("r1");
+        NotificationLog fresh = log("r2");
+        when(repository.save(raced)).thenThrow(violation("notification_logs.uk_notification_logs_reference_type"));
+
+        List<NotificationLog> claimed = idempotency.claim(TYPE, List.of(raced, fresh));
+
+        assertThat(claimed).containsExactly(fresh);
+        assertThat(idempotency.claim(TYPE, List.of(log("r1")))).isEmpty();
+    }
+
+    @Test
+    void otherConstraintViolationsAreRethrown() {
+        DataIntegrityViolationException notNull = violation("recipient_email");
+        when(repository.saveAll(anyList())).thenThrow(notNull);
+
+        assertThatThrownBy(() -> idempotency.claim(TYPE, List.of(log("r1")))).isSameAs(notNull);
+        verify(repository, never()).save(any(NotificationLog.class));
+    }
+
+    private static NotificationLog log(String referenceId) {
+        return NotificationLog.builder()
+                .recipientEmail("vendor@example.com")
+                .recipientName("Vendor")
+                .notificationType(TYPE)
+                .subject("Stall Reservation Confirmation")
+                .referenceId(referenceId)
+                .status("PENDING")
+                .build();
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException(), constraintName));
+    }
+}
@@ -0,0 +1,106 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.entity.NotificationLog;
+import com.cibf.notificationservice.notification.model.enums.NotificationType;
+import com.cibf.notificationservice.notification.model.event.RegistrationEvent;
+import com.cibf.notificationservice.notification.repository.NotificationLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationLeaseTest {
+
+    private static final LocalDateTime CREATED_LEASE = LocalDateTime.of(2026, 9, 1, 10, 40);
+
+    private EmailService emailService;
+    private EmailDispatcher emailDispatcher;
+    private NotificationLogRepository repository;
+    private NotificationRetryPolicy retryPolicy;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = mock(EmailService.class);
+        emailDispatcher = new EmailDispatcher(1, 10, 8, 2);
+        repository = mock(NotificationLogRepository.class);
+        retryPolicy = mock(NotificationRetryPolicy.class);
+        when(retryPolicy.pendingLeaseUntil(any(LocalDateTime.class))).thenAnswer(invocation ->
+                invocation.getArgument(0, LocalDateTime.class).plusMinutes(10));
+
+        notificationService = new NotificationService(emailService, mock(QRCodeService.class), emailDispatcher, repository,
+                mock(NotificationStats.class), mock(NotificationIdempotency.class), retryPolicy);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        emailDispatcher.shutdown();
+    }
+
+    @Test
+    void leaseIsRenewedWhenTheSendStarts() throws Exception {
+        NotificationLog pending = log(1L, 0);
+        when(repository.renewLease(anyLong(), anyInt(), any(LocalDateTime.class))).thenReturn(1);
+
+        notificationService.deliverRegistrationConfirmations(List.of(pending), List.of(event()))
+                .get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<LocalDateTime> renewedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).renewLease(anyLong(), anyInt(), renewedUntil.capture());
+        assertThat(renewedUntil.getValue().isAfter(CREATED_LEASE)).isTrue();
+        verify(emailService).sendRegistrationConfirmation(any(RegistrationEvent.class));
+        assertThat(pending.getStatus()).isEqualTo("SENT");
+    }
+
+    // The lease ran out while the task was queued and the sweeper already re-sent the notification
+    @Test
+    @SuppressWarnings("unchecked")
+    void logTakenOverByTheSweeperIsNeitherSentNorOverwritten() throws Exception {
+        NotificationLog pending = log(1L, 0);
+        when(repository.renewLease(anyLong(), anyInt(), any(LocalDateTime.class))).thenReturn(0);
+
+        notificationService.deliverRegistrationConfirmations(List.of(pending), List.of(event()))
+                .get(5, TimeUnit.SECONDS);
+
+        verify(emailService, never()).sendRegistrationConfirmation(any(RegistrationEvent.class));
+        ArgumentCaptor<List<NotificationLog>> flushed = ArgumentCaptor.forClass(List.class);
+        verify(repository).updateOutcomes(flushed.capture());
+        assertThat(flushed.getValue()).isEmpty();
+        assertThat(pending.getNextRetryAt()).isEqualTo(CREATED_LEASE);
+    }
+
+    private static NotificationLog log(Long id, int retryCount) {
+        return NotificationLog.builder()
+                .id(id)
+                .recipientEmail("vendor@example.com")
+                .recipientName("Vendor")
+                .notificationType(NotificationType.REGISTRATION_CONFIRMATION)
+                .subject("Welcome to Colombo Bookfair")
+                .referenceId("user-1")
+                .status("PENDING")
+                .retryCount(retryCount)
+                .nextRetryAt(CREATED_LEASE)
+                .payload(new byte[]{'{', '}'})
+                .build();
+    }
+
+    private static RegistrationEvent event() {
+        return RegistrationEvent.builder()
+                .userId("user-1")
+                .email("vendor@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.dto.QRVerificationResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QRPayloadSignerTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final QRPayloadSigner signer = new QRPayloadSigner(SECRET);
+
+    @Test
+    void signedPayloadVerifiesAndIsDeterministic() {
+        String payload = signer.sign("res-1", "user-1");
+
+        assertThat(payload).startsWith("BF1|res-1|user-1|");
+        assertThat(signer.sign("res-1", "user-1")).isEqualTo(payload);
+
+        QRVerificationResponse response = signer.verify(payload);
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getReservationId()).isEqualTo("res-1");
+        assertThat(response.getUserId()).isEqualTo("user-1");
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String payload = signer.sign("res-1", "user-1");
+
+        assertThat(signer.verify(payload.replace("res-1", "res-2")).isValid()).isFalse();
+        assertThat(signer.verify(payload.substring(0, payload.length() - 2)).isValid()).isFalse();
+        assertThat(signer.verify("BF1|res-1|user-1|not*base64").isValid()).isFalse();
+        assertThat(signer.verify(null).isValid()).isFalse();
+    }
+
+    @Test
+    void payloadSignedWithAnotherSecretIsRejected() {
+        String payload = new QRPayloadSigner(SECRET + "-other").sign("res-1", "user-1");
+
+        assertThat(signer.verify(payload).isValid()).isFalse();
+    }
+
+    @Test
+    void fieldsContainingTheSeparatorAreRefused() {
+        assertThatThrownBy(() -> signer.sign("res|1", "user-1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void missingSecretFailsAtStartup() {
+        assertThatThrownBy(() -> new QRPayloadSigner(" "))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.qrcode.secret");
+    }
+}
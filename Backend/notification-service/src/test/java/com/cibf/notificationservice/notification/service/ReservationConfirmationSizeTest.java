@@ -0,0 +1,104 @@
+package com.cibf.notificationservice.notification.service;
+
+import com.cibf.notificationservice.notification.model.event.ReservationEvent;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationConfirmationSizeTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private byte[] qrCode;
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        QRCodeService qrCodeService = new QRCodeService(new QRPayloadSigner(SECRET));
+        ReflectionTestUtils.setField(qrCodeService, "qrCodeWidth", 300);
+        ReflectionTestUtils.setField(qrCodeService, "qrCodeHeight", 300);
+        ReflectionTestUtils.setField(qrCodeService, "cacheSize", 10);
+        qrCodeService.initCache();
+        qrCode = qrCodeService.generateReservationQRCode(
+                "7d9f3c1e-2b4a-4c8e-9f1a-3e5b7c9d1f2a", "1a2b3c4d-5e6f-4a8b-9c0d-1e2f3a4b5c6d");
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        renderer = new EmailTemplateRenderer(templateEngine);
+    }
+
+    @Test
+    void confirmationReferencesTheQrCodeByContentId() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage(Session.getInstance(new Properties())));
+        EmailTemplateRenderer templateRenderer = mock(EmailTemplateRenderer.class);
+        when(templateRenderer.render(eq("reservation-confirmation"), any(Context.class))).thenReturn("<html></html>");
+        EmailService emailService = new EmailService(mailSender, templateRenderer, mock(DomainRateLimiter.class));
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@colombobookfair.lk");
+        ReflectionTestUtils.setField(emailService, "fromName", "Colombo International Bookfair");
+
+        emailService.buildReservationConfirmation(event(), qrCode);
+
+        ArgumentCaptor<Context> context = ArgumentCaptor.forClass(Context.class);
+        verify(templateRenderer).render(eq("reservation-confirmation"), context.capture());
+        assertThat(context.getValue().getVariable("qrCode")).isEqualTo("cid:reservation-qr-code");
+    }
+
+    // The image now travels once as a Base64 related part; the rendered HTML held in memory no longer carries it
+    @Test
+    void renderedHtmlNoLongerCarriesTheEncodedImage() {
+        String base64 = Base64.getEncoder().encodeToString(qrCode);
+
+        String inline = render("cid:reservation-qr-code");
+        String dataUri = render("data:image/png;base64," + base64);
+
+        assertThat(inline).doesNotContain(base64);
+        // Every rendered confirmation is smaller by the Base64 text, i.e. by more than the PNG itself
+        assertThat(dataUri.length() - inline.length()).isGreaterThan(qrCode.length);
+    }
+
+    private String render(String qrCodeSource) {
+        ReservationEvent event = event();
+        Context context = new Context();
+        context.setVariable("userName", event.getRecipientName());
+        context.setVariable("businessName", event.getBusinessName());
+        context.setVariable("reservationId", event.getReservationId());
+        context.setVariable("stalls", event.getStalls());
+        context.setVariable("reservationDate", event.getReservationDate());
+        context.setVariable("qrCode", qrCodeSource);
+        return renderer.render("reservation-confirmation", context);
+    }
+
+    private static ReservationEvent event() {
+        return ReservationEvent.builder()
+                .reservationId("7d9f3c1e-2b4a-4c8e-9f1a-3e5b7c9d1f2a")
+                .userId("1a2b3c4d-5e6f-4a8b-9c0d-1e2f3a4b5c6d")
+                .userEmail("orders@sarasavi.lk")
+                .businessName("Sarasavi Bookshop")
+                .reservationDate(LocalDateTime.of(2026, 9, 1, 10, 30))
+                .stalls(List.of())
+                .build();
+    }
+}
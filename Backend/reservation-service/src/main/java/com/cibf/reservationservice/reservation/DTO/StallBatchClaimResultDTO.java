@@ -0,0 +1,19 @@
+package com.cibf.reservationservice.reservation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StallBatchClaimResultDTO {
+
+    private boolean claimed;
+    private List<StallClaimResultDTO> results;
+    private List<StallDetailsDTO> stalls;
+}
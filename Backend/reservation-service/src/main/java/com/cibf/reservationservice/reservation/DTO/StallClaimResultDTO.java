@@ -0,0 +1,26 @@
+package com.cibf.reservationservice.reservation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StallClaimResultDTO {
+
+    private UUID stallId;
+    private ClaimStatus status;
+
+    public enum ClaimStatus {
+        CLAIMED,
+        ALREADY_TAKEN,
+        NOT_FOUND,
+        RELEASED,
+        ALREADY_AVAILABLE
+    }
+}
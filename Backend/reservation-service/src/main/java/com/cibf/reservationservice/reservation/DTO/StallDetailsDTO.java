@@ -0,0 +1,22 @@
+package com.cibf.reservationservice.reservation.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Stall details as returned by stall-service with a successful batch claim
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StallDetailsDTO {
+
+    private UUID stallId;
+    private String label;
+    private String stallSize;
+    private double price;
+    private String area;
+}
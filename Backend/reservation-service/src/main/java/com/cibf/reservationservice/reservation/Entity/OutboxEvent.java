@@ -0,0 +1,64 @@
+package com.cibf.reservationservice.reservation.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservation_outbox", indexes = {
+        @Index(name = "idx_outbox_sent_at", columnList = "sent_at, id"),
+        @Index(name = "idx_outbox_claim_token", columnList = "claim_token")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "event_key", nullable = false)
+    private String eventKey;
+
+    @Column(name = "schema_version", nullable = false)
+    private int schemaVersion;
+
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Null until the relay has handed the record to Kafka
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    // Set by the relay pass that currently owns the row; other instances skip it until claimed_until
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    // End of the owning pass's claim, or of the back-off after a failed send
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // Set once the row has failed app.outbox.max-attempts times; parked rows are no longer relayed
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
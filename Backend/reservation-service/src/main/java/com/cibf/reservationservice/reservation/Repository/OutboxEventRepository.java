@@ -0,0 +1,51 @@
+package com.cibf.reservationservice.reservation.Repository;
+
+import com.cibf.reservationservice.reservation.Entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest unsent rows no relay pass currently holds and whose back-off, if any, has run out
+    @Query("SELECT o.id FROM OutboxEvent o WHERE o.sentAt IS NULL AND o.parkedAt IS NULL " +
+            "AND (o.claimedUntil IS NULL OR o.claimedUntil < :now) ORDER BY o.id")
+    List<Long> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Re-checks the claimable condition per row, so when two instances race for the same ids each row goes to one of them
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.claimToken = :claimToken, o.claimedUntil = :claimedUntil " +
+            "WHERE o.id IN :ids AND o.sentAt IS NULL AND o.parkedAt IS NULL " +
+            "AND (o.claimedUntil IS NULL OR o.claimedUntil < :now)")
+    int claim(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken,
+              @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Query("SELECT o FROM OutboxEvent o WHERE o.claimToken = :claimToken AND o.sentAt IS NULL ORDER BY o.id")
+    List<OutboxEvent> findClaimed(@Param("claimToken") String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.sentAt = :sentAt WHERE o.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // Releases the claim until retryAt, or parks the row when parkedAt is set
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = :attempts, o.lastError = :lastError, o.claimToken = NULL, " +
+            "o.claimedUntil = :retryAt, o.parkedAt = :parkedAt WHERE o.id = :id AND o.claimToken = :claimToken")
+    int recordFailure(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("attempts") int attempts,
+                      @Param("lastError") String lastError, @Param("retryAt") LocalDateTime retryAt,
+                      @Param("parkedAt") LocalDateTime parkedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,6 +14,9 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
 
     List<Reservation> findByUserId(UUID userId);
 
+    // Served from the (user_id, status) index, no entities are loaded
+    long countByUserIdAndStatusIn(UUID userId, Collection<Reservation.ReservationStatus> statuses);
+
     List<Reservation> findByStallId(UUID stallId);
 
     List<Reservation> findByStatus(Reservation.ReservationStatus status);
@@ -0,0 +1,144 @@
+package com.cibf.reservationservice.reservation.Service;
+
+import com.cibf.reservationservice.reservation.Entity.OutboxEvent;
+import com.cibf.reservationservice.reservation.Repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains reservation_outbox into Kafka. Each pass claims a batch of rows with a conditional UPDATE, so
+ * several instances can relay concurrently without publishing the same row, and rows are read, claimed
+ * and marked sent in their own short transactions, so no database transaction is held open while
+ * waiting on the broker. Delivery is at-least-once: a crash between send and markSent re-publishes the
+ * batch once its claim runs out.
+ * <p>
+ * A row that fails is retried with exponential back-off and, after app.outbox.max-attempts failures,
+ * parked so it no longer holds back the rows behind it. Retries can therefore reorder a key's events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    // Must outlast a whole pass, otherwise another instance can claim rows that are still in flight
+    @Value("${app.outbox.claim-ttl-ms:60000}")
+    private long claimTtlMs;
+
+    @Value("${app.outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+
+    @Value("${app.outbox.retry-max-delay-ms:300000}")
+    private long retryMaxDelayMs;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:200}")
+    public void relay() {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxEventRepository.findClaimable(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            String claimToken = UUID.randomUUID().toString();
+            if (outboxEventRepository.claim(ids, claimToken, now, now.plus(claimTtlMs, ChronoUnit.MILLIS)) == 0) {
+                // Another instance claimed them between the select and the update
+                return;
+            }
+            if (publish(outboxEventRepository.findClaimed(claimToken), claimToken) < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int publish(List<OutboxEvent> batch, String claimToken) {
+        long start = System.nanoTime();
+
+        // Hand the whole batch to the producer first so linger/compression can group the records
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ProducerRecord<String, String> record =
+                    new ProducerRecord<>(event.getTopic(), event.getEventKey(), event.getPayload());
+            record.headers().add(SCHEMA_VERSION_HEADER,
+                    Integer.toString(event.getSchemaVersion()).getBytes(StandardCharsets.UTF_8));
+            futures.add(kafkaTemplate.send(record));
+        }
+
+        // One deadline for the batch, so a broker outage costs sendTimeoutMs per pass rather than per record
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                recordFailure(batch.get(i), claimToken, e);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.markSent(sentIds, LocalDateTime.now());
+        }
+        log.debug("Relayed {}/{} outbox events in {} ms", sentIds.size(), batch.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return sentIds.size();
+    }
+
+    private void recordFailure(OutboxEvent event, String claimToken, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        String error = e instanceof ExecutionException && e.getCause() != null ? e.getCause().toString() : e.toString();
+        if (attempts >= maxAttempts) {
+            log.error("Parking outbox event {} after {} failed attempts", event.getId(), attempts, e);
+            outboxEventRepository.recordFailure(event.getId(), claimToken, attempts, error, null, now);
+        } else {
+            long delayMs = Math.min(retryMaxDelayMs, retryInitialDelayMs << Math.min(attempts - 1, 20));
+            log.warn("Failed to relay outbox event {} (attempt {}), retrying in {} ms", event.getId(), attempts, delayMs, e);
+            outboxEventRepository.recordFailure(event.getId(), claimToken, attempts, error,
+                    now.plus(delayMs, ChronoUnit.MILLIS), null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void purgeSent() {
+        int deleted = outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} relayed outbox events", deleted);
+        }
+    }
+}
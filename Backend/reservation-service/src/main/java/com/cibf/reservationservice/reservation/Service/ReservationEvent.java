@@ -1,23 +1,79 @@
 package com.cibf.reservationservice.reservation.Service;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
 
+// Wire contract of bookfair.reservation.created, mirrored by notification-service's model.event.ReservationEvent.
+// Bump SCHEMA_VERSION (sent as the schema-version record header) on any incompatible change.
+// src/test/resources/contracts/reservation-created-v1.json is the sample both services test against.
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class ReservationEvent {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    @JsonProperty("event_type")
     private String eventType;
-    private UUID reservationId;
-    private UUID userId;
-    private UUID stallId;
+
+    @JsonProperty("reservation_id")
+    private String reservationId;
+
+    @JsonProperty("user_id")
+    private String userId;
+
+    @JsonProperty("user_email")
+    private String userEmail;
+
+    // Optional: consumers address the business when it is absent
+    @JsonProperty("user_name")
+    private String userName;
+
+    @JsonProperty("business_name")
     private String businessName;
-    private String email;
+
+    @JsonProperty("phone_number")
     private String phoneNumber;
+
+    @JsonProperty("stalls")
+    private List<StallInfo> stalls;
+
+    @JsonProperty("reservation_date")
     private LocalDateTime reservationDate;
+
+    @JsonProperty("status")
     private String status;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    @JsonProperty("total_amount")
+    private Double totalAmount;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StallInfo {
+        @JsonProperty("stall_id")
+        private String stallId;
+
+        @JsonProperty("stall_name")
+        private String stallName;
+
+        @JsonProperty("stall_size")
+        private String stallSize;
+
+        @JsonProperty("location")
+        private String location;
+
+        @JsonProperty("price")
+        private Double price;
+    }
+}
@@ -1,12 +1,21 @@
 package com.cibf.reservationservice.reservation.Service;
 
+import com.cibf.reservationservice.reservation.DTO.StallDetailsDTO;
+import com.cibf.reservationservice.reservation.Entity.OutboxEvent;
 import com.cibf.reservationservice.reservation.Entity.Reservation;
+import com.cibf.reservationservice.reservation.Repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -14,32 +23,62 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReservationEventProducer {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
 
     private static final String TOPIC = "bookfair.reservation.created";
 
-    public void publishReservationsCreated(List<Reservation> reservations) {
-        List<ReservationEvent> events = reservations.stream()
-                .map(reservation -> ReservationEvent.builder()
-                        .eventType("RESERVATIONS_CREATED")
-                        .reservationId(reservation.getReservationId())
-                        .userId(reservation.getUserId())
-                        .stallId(reservation.getStallId())
-                        .businessName(reservation.getBusinessName())
-                        .email(reservation.getEmail())
-                        .phoneNumber(reservation.getPhoneNumber())
-                        .reservationDate(reservation.getReservationDate())
-                        .status(reservation.getStatus().toString())
-                        .createdAt(reservation.getCreatedAt())
-                        .updatedAt(reservation.getUpdatedAt())
+    // Written in the caller's transaction; OutboxRelay publishes it only once that transaction commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishReservationsCreated(List<Reservation> reservations, List<StallDetailsDTO> stalls) {
+        Map<UUID, StallDetailsDTO> stallsById = stalls == null ? Map.of() : stalls.stream()
+                .collect(Collectors.toMap(StallDetailsDTO::getStallId, Function.identity(), (first, second) -> first));
+
+        // One record per reservation keyed by user: events spread over all partitions
+        // while each user's events stay ordered on a single partition
+        List<OutboxEvent> outboxEvents = reservations.stream()
+                .map(reservation -> OutboxEvent.builder()
+                        .topic(TOPIC)
+                        .eventKey(reservation.getUserId().toString())
+                        .schemaVersion(ReservationEvent.SCHEMA_VERSION)
+                        .payload(toJson(toEvent(reservation, stallsById.get(reservation.getStallId()))))
                         .build())
                 .collect(Collectors.toList());
 
+        outboxEventRepository.saveAll(outboxEvents);
+        log.info("Queued reservation created events for {} reservations", reservations.size());
+    }
+
+    // Reservations carry no personal name, so user_name is left out and consumers address the business
+    ReservationEvent toEvent(Reservation reservation, StallDetailsDTO stall) {
+        ReservationEvent.StallInfo.StallInfoBuilder stallInfo = ReservationEvent.StallInfo.builder()
+                .stallId(reservation.getStallId().toString());
+        if (stall != null) {
+            stallInfo.stallName(stall.getLabel())
+                    .stallSize(stall.getStallSize())
+                    .location(stall.getArea())
+                    .price(stall.getPrice());
+        }
+
+        return ReservationEvent.builder()
+                .eventType("RESERVATION_CREATED")
+                .reservationId(reservation.getReservationId().toString())
+                .userId(reservation.getUserId().toString())
+                .userEmail(reservation.getEmail())
+                .businessName(reservation.getBusinessName())
+                .phoneNumber(reservation.getPhoneNumber())
+                .stalls(List.of(stallInfo.build()))
+                .reservationDate(reservation.getReservationDate())
+                .status(reservation.getStatus().toString())
+                .totalAmount(stall != null ? stall.getPrice() : null)
+                .build();
+    }
+
+    private String toJson(ReservationEvent event) {
         try {
-            kafkaTemplate.send(TOPIC, "batch", events);
-            log.info("Published reservations created event for {} reservations", reservations.size());
-        } catch (Exception e) {
-            log.error("Failed to publish reservations created event for {} reservations", reservations.size(), e);
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize reservation event " + event.getReservationId(), e);
         }
     }
-}
\ No newline at end of file
+}
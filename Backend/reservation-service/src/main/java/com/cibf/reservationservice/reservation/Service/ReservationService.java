@@ -2,9 +2,12 @@ package com.cibf.reservationservice.reservation.Service;
 
 import com.cibf.reservationservice.reservation.DTO.ReservationRequestDTO;
 import com.cibf.reservationservice.reservation.DTO.ReservationResponseDTO;
+import com.cibf.reservationservice.reservation.DTO.StallBatchClaimResultDTO;
+import com.cibf.reservationservice.reservation.DTO.StallClaimResultDTO;
 import com.cibf.reservationservice.reservation.Entity.Reservation;
 import com.cibf.reservationservice.reservation.Repository.ReservationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -12,14 +15,20 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -30,38 +39,61 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final ReservationEventProducer eventProducer;
     private final RestTemplate restTemplate;
+    private final String stallServiceBaseUrl;
 
-    private static final String STALL_SERVICE_BASE_URL = "http://localhost:8086/api/v1/stall/updateavailability";
+    private static final int CLAIM_ATTEMPTS = 2;
+
+    // Reservations that count towards the per-user limit
+    private static final List<Reservation.ReservationStatus> ACTIVE_STATUSES =
+            List.of(Reservation.ReservationStatus.PENDING, Reservation.ReservationStatus.CONFIRMED);
 
     @Autowired
-    public ReservationService(ReservationRepository reservationRepository, ReservationEventProducer eventProducer, RestTemplate restTemplate) {
+    public ReservationService(ReservationRepository reservationRepository, ReservationEventProducer eventProducer, RestTemplate restTemplate,
+                              @Value("${app.stall-service.url}") String stallServiceBaseUrl) {
         this.reservationRepository = reservationRepository;
         this.eventProducer = eventProducer;
         this.restTemplate = restTemplate;
+        this.stallServiceBaseUrl = stallServiceBaseUrl;
     }
 
-    private boolean checkAndBookStall(String stallId) {
-        try {
-            String url = STALL_SERVICE_BASE_URL + "/" + stallId;
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.PUT, null, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                String responseBody = response.getBody();
-                if (responseBody != null && responseBody.contains("Stall availability updated to 0")) {
-                    return true; // Successfully booked
-                } else if (responseBody != null && responseBody.contains("Stall is not available")) {
-                    return false; // Stall not available
-                }
+    private StallBatchClaimResultDTO claimStalls(List<UUID> stallIds, String claimToken) {
+        // The claim is idempotent per token, so a call whose outcome is unknown can be repeated
+        for (int attempt = 1; attempt <= CLAIM_ATTEMPTS; attempt++) {
+            try {
+                String url = stallServiceBaseUrl + "/claim?claimToken=" + claimToken;
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+
+                HttpEntity<List<UUID>> entity = new HttpEntity<>(stallIds, headers);
+                ResponseEntity<StallBatchClaimResultDTO> response =
+                        restTemplate.exchange(url, HttpMethod.PUT, entity, StallBatchClaimResultDTO.class);
+                return response.getBody();
+            } catch (HttpClientErrorException.Conflict e) {
+                // Stall service rolled the batch back; the body still carries the per-stall results
+                return e.getResponseBodyAs(StallBatchClaimResultDTO.class);
+            } catch (ResourceAccessException e) {
+                // e.g. a read timeout, possibly after stall-service committed the claim
+                System.err.println("Error claiming stalls (attempt " + attempt + "): " + e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Error claiming stalls: " + e.getMessage());
+                break;
             }
-        } catch (Exception e) {
-            System.err.println("Error checking/booking stall: " + e.getMessage());
         }
-        return false;
+
+        // Undo whatever this claim may have taken; the token keeps stalls held by anyone else untouched
+        releaseClaim(stallIds, claimToken);
+        return null;
+    }
+
+    private void releaseClaim(List<UUID> stallIds, String claimToken) {
+        for (UUID stallId : stallIds) {
+            cancelStallBooking(stallId, claimToken);
+        }
     }
 
     private boolean bookStall(String stallId) {
         try {
-            String url = STALL_SERVICE_BASE_URL + "/book";
+            String url = stallServiceBaseUrl + "/book";
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -79,17 +111,18 @@ public class ReservationService {
         }
     }
 
-    private boolean cancelStallBooking(String stallId) {
+    private boolean cancelStallBooking(UUID stallId, String claimToken) {
         try {
-            String url = "http://localhost:8086/api/v1/stall/cancelBooking/" + stallId;
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.PUT, null, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                String responseBody = response.getBody();
-                if (responseBody != null && responseBody.contains("Stall is available")) {
-                    return true; // Successfully made available
-                }
-            }
+            String url = stallServiceBaseUrl + "/release/" + stallId
+                    + (claimToken != null ? "?claimToken=" + claimToken : "");
+            ResponseEntity<StallClaimResultDTO> response =
+                    restTemplate.exchange(url, HttpMethod.PUT, null, StallClaimResultDTO.class);
+
+            StallClaimResultDTO result = response.getBody();
+            return result != null && result.getStatus() == StallClaimResultDTO.ClaimStatus.RELEASED;
+        } catch (HttpClientErrorException e) {
+            // 404 (unknown stall) or 409 (stall was already available, or is held by another claim)
+            System.err.println("Stall " + stallId + " was not released: " + e.getStatusCode());
         } catch (Exception e) {
             System.err.println("Error canceling stall booking: " + e.getMessage());
         }
@@ -108,7 +141,7 @@ public class ReservationService {
             UUID userId = entry.getKey();
             List<ReservationRequestDTO> userRequests = entry.getValue();
 
-            long existingReservations = reservationRepository.findByUserId(userId).size();
+            long existingReservations = reservationRepository.countByUserIdAndStatusIn(userId, ACTIVE_STATUSES);
             long totalAfterBatch = existingReservations + userRequests.size();
 
             if (totalAfterBatch > 3) {
@@ -122,17 +155,68 @@ public class ReservationService {
             }
         }
 
-        // If validation passes, proceed with individual processing
+        // Claim every requested stall in a single all-or-nothing call to the stall service
+        List<UUID> stallIds = requests.stream()
+                .map(ReservationRequestDTO::getStallId)
+                .collect(Collectors.toList());
+
+        // A stall can only be reserved once; the stall service refuses such a batch as well
+        Set<UUID> seenStalls = new HashSet<>();
+        Set<UUID> duplicateStalls = stallIds.stream()
+                .filter(stallId -> !seenStalls.add(stallId))
+                .collect(Collectors.toSet());
+        if (!duplicateStalls.isEmpty()) {
+            for (ReservationRequestDTO request : requests) {
+                String error = duplicateStalls.contains(request.getStallId())
+                        ? "Stall " + request.getStallId() + " is requested more than once in the batch"
+                        : "Stall " + request.getStallId() + " was not reserved because the batch requests another stall more than once";
+                responses.add(ReservationResponseDTO.builder()
+                        .error(error)
+                        .build());
+            }
+            return responses;
+        }
+        String claimToken = UUID.randomUUID().toString();
+        StallBatchClaimResultDTO claimResult = claimStalls(stallIds, claimToken);
+
+        if (claimResult == null) {
+            for (ReservationRequestDTO request : requests) {
+                responses.add(ReservationResponseDTO.builder()
+                        .error("Failed to reserve stall " + request.getStallId() + ": stall service unavailable")
+                        .build());
+            }
+            return responses;
+        }
+
+        if (!claimResult.isClaimed()) {
+            Set<UUID> unavailableStalls = claimResult.getResults().stream()
+                    .filter(result -> result.getStatus() != StallClaimResultDTO.ClaimStatus.CLAIMED)
+                    .map(StallClaimResultDTO::getStallId)
+                    .collect(Collectors.toSet());
+
+            for (ReservationRequestDTO request : requests) {
+                String error = unavailableStalls.contains(request.getStallId())
+                        ? "Stall " + request.getStallId() + " is not available"
+                        : "Stall " + request.getStallId() + " was not reserved because other stalls in the batch are not available";
+                responses.add(ReservationResponseDTO.builder()
+                        .error(error)
+                        .build());
+            }
+            return responses;
+        }
+
+        // All stalls are held, create the reservations. Stalls whose reservation is not committed
+        // go back to the stall service once this transaction completes
+        List<UUID> unsavedStalls = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                releaseClaim(status == STATUS_COMMITTED ? unsavedStalls : stallIds, claimToken);
+            }
+        });
+
         for (ReservationRequestDTO request : requests) {
             try {
-                // Check stall availability and book it in one call
-                if (!checkAndBookStall(request.getStallId().toString())) {
-                    responses.add(ReservationResponseDTO.builder()
-                            .error("Stall " + request.getStallId() + " is not available")
-                            .build());
-                    continue;
-                }
-
                 // Create reservation
                 Reservation reservation = Reservation.builder()
                         .userId(request.getUserId())
@@ -150,6 +234,7 @@ public class ReservationService {
                 responses.add(mapToResponseDTO(saved, "Reservation created successfully"));
 
             } catch (Exception e) {
+                unsavedStalls.add(request.getStallId());
                 responses.add(ReservationResponseDTO.builder()
                         .error("Failed to create reservation: " + e.getMessage())
                         .build());
@@ -158,7 +243,7 @@ public class ReservationService {
 
         // Publish Kafka event with the entire array
         if (!savedReservations.isEmpty()) {
-            eventProducer.publishReservationsCreated(savedReservations);
+            eventProducer.publishReservationsCreated(savedReservations, claimResult.getStalls());
         }
 
         return responses;
@@ -198,7 +283,7 @@ public class ReservationService {
 
         // Try to cancel the stall booking before deleting the reservation
         // For testing purposes, we'll continue even if this fails
-        boolean stallCancelled = cancelStallBooking(reservation.getStallId().toString());
+        boolean stallCancelled = cancelStallBooking(reservation.getStallId(), null);
         if (!stallCancelled) {
             System.out.println("Warning: Failed to cancel stall booking, but proceeding with reservation deletion");
         }
@@ -0,0 +1,112 @@
+package com.cibf.reservationservice.reservation.Service;
+
+import com.cibf.reservationservice.reservation.Entity.OutboxEvent;
+import com.cibf.reservationservice.reservation.Repository.OutboxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final String POISON_KEY = "poison";
+
+    private OutboxEventRepository outboxEventRepository;
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, String> record = invocation.getArgument(0);
+            return POISON_KEY.equals(record.key())
+                    ? CompletableFuture.failedFuture(new IllegalStateException("record too large"))
+                    : CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate);
+        ReflectionTestUtils.setField(relay, "batchSize", 3);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "claimTtlMs", 60_000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "retryInitialDelayMs", 1000L);
+        ReflectionTestUtils.setField(relay, "retryMaxDelayMs", 300_000L);
+    }
+
+    @Test
+    void failingRowDoesNotHoldBackTheRowsBehindIt() {
+        claimable(event(1L, POISON_KEY, 0), event(2L, "a", 0), event(3L, "b", 0));
+
+        relay.relay();
+
+        verify(outboxEventRepository).markSent(eq(List.of(2L, 3L)), any(LocalDateTime.class));
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).recordFailure(eq(1L), anyString(), eq(1), anyString(), retryAt.capture(), isNull());
+        assertThat(retryAt.getValue()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void rowIsParkedOnItsLastAttempt() {
+        claimable(event(1L, POISON_KEY, 2));
+
+        relay.relay();
+
+        verify(outboxEventRepository).recordFailure(eq(1L), anyString(), eq(3), anyString(), isNull(),
+                any(LocalDateTime.class));
+        verify(outboxEventRepository, never()).markSent(anyList(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void nothingIsPublishedWhenAnotherInstanceWonTheClaim() {
+        when(outboxEventRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(1L));
+        when(outboxEventRepository.claim(anyList(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).findClaimed(anyString());
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    private void claimable(OutboxEvent... events) {
+        List<OutboxEvent> batch = List.of(events);
+        when(outboxEventRepository.findClaimable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(batch.stream().map(OutboxEvent::getId).toList());
+        when(outboxEventRepository.claim(anyList(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(batch.size());
+        when(outboxEventRepository.findClaimed(anyString())).thenReturn(batch);
+    }
+
+    private static OutboxEvent event(Long id, String key, int attempts) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("bookfair.reservation.created")
+                .eventKey(key)
+                .schemaVersion(1)
+                .payload("{}")
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.cibf.reservationservice.reservation.Service;
+
+import com.cibf.reservationservice.reservation.DTO.StallDetailsDTO;
+import com.cibf.reservationservice.reservation.Entity.OutboxEvent;
+import com.cibf.reservationservice.reservation.Entity.Reservation;
+import com.cibf.reservationservice.reservation.Repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ReservationEventProducerTest {
+
+    // Partition count of bookfair.reservation.created (notification-service KafkaTopicConfig)
+    private static final int PARTITIONS = 3;
+
+    // Configured like the Spring Boot ObjectMapper the producer gets injected
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+
+    private final ReservationEventProducer producer = new ReservationEventProducer(outboxEventRepository, objectMapper);
+
+    // notification-service keeps a copy of this sample for its parsing test; change both files together
+    @Test
+    void eventMatchesTheSharedContractSample() throws Exception {
+        Reservation reservation = Reservation.builder()
+                .reservationId(UUID.fromString("7d9f3c1e-2b4a-4c8e-9f1a-3e5b7c9d1f2a"))
+                .userId(UUID.fromString("1a2b3c4d-5e6f-4a8b-9c0d-1e2f3a4b5c6d"))
+                .stallId(UUID.fromString("9e8d7c6b-5a4f-4e3d-8c2b-1a0f9e8d7c6b"))
+                .businessName("Sarasavi Bookshop")
+                .email("orders@sarasavi.lk")
+                .phoneNumber("+94112345678")
+                .reservationDate(LocalDateTime.of(2026, 9, 1, 10, 30))
+                .status(Reservation.ReservationStatus.PENDING)
+                .build();
+        StallDetailsDTO stall = StallDetailsDTO.builder()
+                .stallId(reservation.getStallId())
+                .label("A1")
+                .stallSize("MEDIUM")
+                .price(25000)
+                .area("Hall A")
+                .build();
+
+        String json = objectMapper.writeValueAsString(producer.toEvent(reservation, stall));
+
+        try (InputStream sample = getClass().getResourceAsStream("/contracts/reservation-created-v1.json")) {
+            assertThat(objectMapper.readTree(json)).isEqualTo(objectMapper.readTree(sample));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eventsAreKeyedByUserAndSpreadOverAllPartitions() {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int user = 0; user < 12; user++) {
+            for (int stall = 0; stall < 3; stall++) {
+                reservations.add(reservation(new UUID(0, user), new UUID(1, user * 3 + stall)));
+            }
+        }
+
+        producer.publishReservationsCreated(reservations, List.of());
+
+        ArgumentCaptor<List<OutboxEvent>> saved = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(saved.capture());
+        List<OutboxEvent> events = saved.getValue();
+        assertThat(events).hasSize(reservations.size());
+        assertThat(events).extracting(OutboxEvent::getEventKey)
+                .containsExactly(reservations.stream().map(r -> r.getUserId().toString()).toArray(String[]::new));
+
+        // Same partition choice as the default partitioner for keyed records
+        Map<String, Set<Integer>> partitionsByUser = new HashMap<>();
+        for (OutboxEvent event : events) {
+            partitionsByUser.computeIfAbsent(event.getEventKey(), key -> new HashSet<>()).add(partitionOf(event.getEventKey()));
+        }
+        assertThat(partitionsByUser.values()).allMatch(partitions -> partitions.size() == 1);
+        assertThat(partitionsByUser.values().stream().flatMap(Set::stream).collect(Collectors.toSet()))
+                .hasSize(PARTITIONS);
+    }
+
+    private static int partitionOf(String key) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % PARTITIONS;
+    }
+
+    private static Reservation reservation(UUID userId, UUID stallId) {
+        return Reservation.builder()
+                .reservationId(UUID.randomUUID())
+                .userId(userId)
+                .stallId(stallId)
+                .businessName("Vendor " + userId)
+                .email("vendor@example.com")
+                .reservationDate(LocalDateTime.of(2026, 9, 1, 10, 30))
+                .status(Reservation.ReservationStatus.PENDING)
+                .build();
+    }
+}
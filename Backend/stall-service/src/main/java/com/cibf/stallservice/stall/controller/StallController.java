@@ -1,6 +1,8 @@
 package com.cibf.stallservice.stall.controller;
 
 
+import com.cibf.stallservice.stall.dto.StallBatchClaimResultDTO;
+import com.cibf.stallservice.stall.dto.StallClaimResultDTO;
 import com.cibf.stallservice.stall.dto.StallDTO;
 import com.cibf.stallservice.stall.service.StallService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -83,9 +85,43 @@ public class StallController {
         return stallService.getReservedStalls();
     }
 
-    @PutMapping("/updateavailability/{stallId}")
-    public String updateAvailability(@PathVariable UUID stallId) {
-        return stallService.updateAvailability(stallId);
+    @PutMapping({"/updateavailability/{stallId}", "/claim/{stallId}"})
+    public ResponseEntity<StallClaimResultDTO> claimStall(@PathVariable UUID stallId) {
+        return toResponse(stallService.claimStall(stallId));
+    }
+
+    @PutMapping("/release/{stallId}")
+    public ResponseEntity<StallClaimResultDTO> releaseStall(@PathVariable UUID stallId,
+                                                            @RequestParam(required = false) String claimToken) {
+        return toResponse(stallService.releaseStall(stallId, claimToken));
+    }
+
+    @PutMapping("/claim")
+    public ResponseEntity<StallBatchClaimResultDTO> claimStalls(@RequestBody List<UUID> stallIds,
+                                                                @RequestParam(required = false) String claimToken) {
+        StallBatchClaimResultDTO result;
+        try {
+            result = stallService.claimStalls(stallIds, claimToken);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        if (!result.isClaimed()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    private ResponseEntity<StallClaimResultDTO> toResponse(StallClaimResultDTO result) {
+        switch (result.getStatus()) {
+            case CLAIMED:
+            case RELEASED:
+                return ResponseEntity.ok(result);
+            case NOT_FOUND:
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
+            default:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
     }
 
 }
@@ -0,0 +1,17 @@
+package com.cibf.stallservice.stall.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StallBatchClaimResultDTO {
+
+    private boolean claimed; // true only if every stall in the batch was claimed
+    private List<StallClaimResultDTO> results;
+    private List<StallDTO> stalls; // details of the claimed stalls, empty unless claimed
+}
@@ -0,0 +1,17 @@
+package com.cibf.stallservice.stall.dto;
+
+import com.cibf.stallservice.stall.model.StallClaimStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StallClaimResultDTO {
+
+    private UUID stallId;
+    private StallClaimStatus status; // CLAIMED, ALREADY_TAKEN, NOT_FOUND, RELEASED, ALREADY_AVAILABLE
+}
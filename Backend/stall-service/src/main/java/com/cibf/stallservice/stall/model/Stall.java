@@ -34,6 +34,9 @@ public class Stall {
     @Column(nullable = false)
     private String area; // e.g., "Hall A", "Outdoor"
 
+    @Column(name = "claim_token", length = 36)
+    private String claimToken; // set by the batch claim that holds the stall, so it can retry and release it
+
 }
 
 
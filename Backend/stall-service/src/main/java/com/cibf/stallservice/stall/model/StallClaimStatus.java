@@ -0,0 +1,9 @@
+package com.cibf.stallservice.stall.model;
+
+public enum StallClaimStatus {
+    CLAIMED,
+    ALREADY_TAKEN,
+    NOT_FOUND,
+    RELEASED,
+    ALREADY_AVAILABLE
+}
@@ -3,6 +3,7 @@ package com.cibf.stallservice.stall.repository;
 
 import com.cibf.stallservice.stall.model.Stall;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -21,4 +22,24 @@ public interface StallRepo extends JpaRepository<Stall,UUID> {
     @Query(value = "SELECT * FROM stalls WHERE availability = 0", nativeQuery = true)
     List<Stall> getReservedStalls();
 
+    // Compare-and-set claim: only one concurrent caller can flip 1 -> 0, the rest see 0 rows updated
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE stalls SET availability = 0, claim_token = ?2 WHERE id = ?1 AND availability = 1", nativeQuery = true)
+    int claimStall(UUID stallId, String claimToken);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE stalls SET availability = 1, claim_token = NULL WHERE id = ?1 AND availability = 0", nativeQuery = true)
+    int releaseStall(UUID stallId);
+
+    // Only undoes the claim made with this token, never a stall another caller holds
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE stalls SET availability = 1, claim_token = NULL WHERE id = ?1 AND availability = 0 AND claim_token = ?2", nativeQuery = true)
+    int releaseClaim(UUID stallId, String claimToken);
+
+    @Query(value = "SELECT COUNT(*) FROM stalls WHERE id = ?1 AND availability = 0 AND claim_token = ?2", nativeQuery = true)
+    int countClaimedWith(UUID stallId, String claimToken);
+
+    @Query(value = "SELECT COUNT(*) FROM stalls WHERE id = ?1", nativeQuery = true)
+    int countById(UUID stallId);
+
 }
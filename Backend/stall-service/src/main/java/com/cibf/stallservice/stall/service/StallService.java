@@ -1,14 +1,20 @@
 package com.cibf.stallservice.stall.service;
 
+import com.cibf.stallservice.stall.dto.StallBatchClaimResultDTO;
+import com.cibf.stallservice.stall.dto.StallClaimResultDTO;
 import com.cibf.stallservice.stall.dto.StallDTO;
 import com.cibf.stallservice.stall.model.Stall;
+import com.cibf.stallservice.stall.model.StallClaimStatus;
 import com.cibf.stallservice.stall.repository.StallRepo;
 import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -76,22 +82,77 @@ public class StallService {
         return modelMapper.map(existingStall, StallDTO.class);
     }
 
-    public String updateAvailability(UUID stallId) {
-        Stall existingStall = stallRepo.getStallById(stallId);
+    public StallClaimResultDTO claimStall(UUID stallId) {
+        return claimStall(stallId, null);
+    }
 
-        if (existingStall == null) {
-            return "No stall found with ID ";
+    public StallClaimResultDTO claimStall(UUID stallId, String claimToken) {
+        // Single conditional UPDATE so concurrent claims for the same stall cannot both succeed
+        if (stallRepo.claimStall(stallId, claimToken) == 1) {
+            return new StallClaimResultDTO(stallId, StallClaimStatus.CLAIMED);
+        }
+
+        // A retry of a claim that already went through (e.g. the caller timed out on the response)
+        if (claimToken != null && stallRepo.countClaimedWith(stallId, claimToken) == 1) {
+            return new StallClaimResultDTO(stallId, StallClaimStatus.CLAIMED);
+        }
+
+        // Nothing updated: either the stall does not exist or someone else already holds it
+        if (stallRepo.countById(stallId) == 0) {
+            return new StallClaimResultDTO(stallId, StallClaimStatus.NOT_FOUND);
+        }
+        return new StallClaimResultDTO(stallId, StallClaimStatus.ALREADY_TAKEN);
+    }
+
+    // With a claim token the batch is idempotent: repeating it re-reports the stalls it already holds
+    public StallBatchClaimResultDTO claimStalls(List<UUID> stallIds, String claimToken) {
+        // The token makes a second entry for the same stall look like a retry, so it would be reported
+        // CLAIMED twice and booked twice; refuse such a batch outright
+        if (new HashSet<>(stallIds).size() != stallIds.size()) {
+            throw new IllegalArgumentException("Batch lists the same stall more than once");
+        }
+
+        // Claim in a fixed order so two overlapping batches lock rows in the same sequence
+        List<UUID> orderedIds = new ArrayList<>(stallIds);
+        orderedIds.sort(null);
+
+        List<StallClaimResultDTO> results = new ArrayList<>();
+        boolean allClaimed = true;
+        for (UUID stallId : orderedIds) {
+            StallClaimResultDTO result = claimStall(stallId, claimToken);
+            results.add(result);
+            if (result.getStatus() != StallClaimStatus.CLAIMED) {
+                allClaimed = false;
+            }
         }
 
-        if (existingStall.getAvailability() == 0) {
-            return "Stall is not available";
-        } else if (existingStall.getAvailability() == 1) {
-            existingStall.setAvailability(0); // set to unavailable
-            stallRepo.save(existingStall);
-            return "Stall availability updated to 0 (unavailable)";
+        // All-or-nothing: undo the stalls already claimed in this batch
+        if (!allClaimed) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new StallBatchClaimResultDTO(false, results, List.of());
         }
 
-        return "Invalid availability status for stall ID ";
+        // The caller needs the stall details for its confirmation event; one query for the whole batch
+        List<StallDTO> stalls = modelMapper.map(stallRepo.findAllById(orderedIds), new TypeToken<List<StallDTO>>(){}.getType());
+        return new StallBatchClaimResultDTO(true, results, stalls);
+    }
+
+    public StallClaimResultDTO releaseStall(UUID stallId, String claimToken) {
+        int released = claimToken == null
+                ? stallRepo.releaseStall(stallId)
+                : stallRepo.releaseClaim(stallId, claimToken);
+        if (released == 1) {
+            return new StallClaimResultDTO(stallId, StallClaimStatus.RELEASED);
+        }
+
+        if (stallRepo.countById(stallId) == 0) {
+            return new StallClaimResultDTO(stallId, StallClaimStatus.NOT_FOUND);
+        }
+        if (claimToken != null && stallRepo.getStallById(stallId).getAvailability() == 0) {
+            // Held by a different claim; releasing it would free someone else's stall
+            return new StallClaimResultDTO(stallId, StallClaimStatus.ALREADY_TAKEN);
+        }
+        return new StallClaimResultDTO(stallId, StallClaimStatus.ALREADY_AVAILABLE);
     }
 
 
@@ -0,0 +1,109 @@
+package com.cibf.stallservice.stall.service;
+
+import com.cibf.stallservice.stall.dto.StallClaimResultDTO;
+import com.cibf.stallservice.stall.model.Stall;
+import com.cibf.stallservice.stall.model.StallClaimStatus;
+import com.cibf.stallservice.stall.model.StallSize;
+import com.cibf.stallservice.stall.repository.StallRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs against the embedded database, so the claims go through the real conditional UPDATE.
+// Each call commits on its own, as it does behind the controller, instead of in one test transaction
+@DataJpaTest
+@Import(StallService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StallServiceTest {
+
+    // Below the connection pool size, so every caller holds a connection at the same time
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private StallService stallService;
+
+    @Autowired
+    private StallRepo stallRepo;
+
+    private UUID stallId;
+
+    @BeforeEach
+    void setUp() {
+        stallRepo.deleteAll();
+        stallId = stallRepo.save(new Stall(null, "A1", StallSize.MEDIUM, 25000, 1, "Hall A", null)).getStallId();
+    }
+
+    @Test
+    void concurrentClaimsForOneStallHaveExactlyOneWinner() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<String> claimTokens = new ArrayList<>();
+            List<Future<StallClaimResultDTO>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                String claimToken = UUID.randomUUID().toString();
+                Callable<StallClaimResultDTO> claim = () -> {
+                    start.await();
+                    return stallService.claimStall(stallId, claimToken);
+                };
+                claimTokens.add(claimToken);
+                results.add(callers.submit(claim));
+            }
+            start.countDown();
+
+            List<String> winners = new ArrayList<>();
+            int taken = 0;
+            for (int i = 0; i < CALLERS; i++) {
+                StallClaimStatus status = results.get(i).get().getStatus();
+                if (status == StallClaimStatus.CLAIMED) {
+                    winners.add(claimTokens.get(i));
+                } else if (status == StallClaimStatus.ALREADY_TAKEN) {
+                    taken++;
+                }
+            }
+
+            assertThat(winners).hasSize(1);
+            assertThat(taken).isEqualTo(CALLERS - 1);
+            Stall stall = stallRepo.getStallById(stallId);
+            assertThat(stall.getAvailability()).isZero();
+            assertThat(stall.getClaimToken()).isEqualTo(winners.get(0));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void retryWithTheWinningTokenIsReportedAsClaimed() {
+        String claimToken = UUID.randomUUID().toString();
+
+        assertThat(stallService.claimStall(stallId, claimToken).getStatus()).isEqualTo(StallClaimStatus.CLAIMED);
+        assertThat(stallService.claimStall(stallId, claimToken).getStatus()).isEqualTo(StallClaimStatus.CLAIMED);
+        assertThat(stallService.claimStall(stallId, UUID.randomUUID().toString()).getStatus())
+                .isEqualTo(StallClaimStatus.ALREADY_TAKEN);
+    }
+
+    @Test
+    void batchListingTheSameStallTwiceIsRefused() {
+        String claimToken = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> stallService.claimStalls(List.of(stallId, stallId), claimToken))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(stallRepo.getStallById(stallId).getAvailability()).isEqualTo(1);
+    }
+}